@@ -9,6 +9,7 @@ import net.mehvahdjukaar.polytone.colormap.ColormapsManager;
 import net.mehvahdjukaar.polytone.dimension.DimensionEffectsManager;
 import net.mehvahdjukaar.polytone.fluid.FluidPropertiesManager;
 import net.mehvahdjukaar.polytone.item.CustomItemModelsManager;
+import net.mehvahdjukaar.polytone.item.EntityNbtSnapshots;
 import net.mehvahdjukaar.polytone.item.ItemModifiersManager;
 import net.mehvahdjukaar.polytone.lightmap.LightmapsManager;
 import net.mehvahdjukaar.polytone.noise.NoiseManager;
@@ -43,6 +44,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
 
 public class Polytone {
@@ -125,6 +127,8 @@ public class Polytone {
 
     public static void onLevelUnload() {
         BiomeKeysCache.clear();
+        BIOME_ID_MAPPERS.onLevelUnload();
+        EntityNbtSnapshots.clear();
     }
 
 
@@ -146,6 +150,19 @@ public class Polytone {
         }
     }
 
+    public static void appendToLog(List<String> lines) {
+        String logDir = getLog4jDirectory().orElse(Paths.get("logs").toAbsolutePath().toString());
+        String logFilePath = Paths.get(logDir, "polytone.log").toString();
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(logFilePath, true))) {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+            writer.println("[" + LocalDateTime.now().format(formatter) + "]");
+            lines.forEach(writer::println);
+        } catch (IOException ioException) {
+            LOGGER.error("Failed to log onto polytone.log", ioException);
+        }
+    }
+
     private static Optional<String> getLog4jDirectory() {
         LoggerContext context = (LoggerContext) LogManager.getContext(false);
         Configuration config = context.getConfiguration();
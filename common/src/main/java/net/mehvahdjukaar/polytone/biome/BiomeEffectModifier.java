@@ -252,7 +252,8 @@ public record BiomeEffectModifier(Optional<Integer> fogColor, Optional<Integer>
         @Override
         public float get(Level level) {
             BlockPos pos = ClientFrameTicker.getCameraPos();
-            return (float) map.getValue(level, pos, Blocks.AIR.defaultBlockState());
+            // same as having no fog parameter once disabled
+            return (float) map.getValue(level, pos, Blocks.AIR.defaultBlockState(), 1);
         }
     }
 
@@ -5,7 +5,9 @@ import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.JsonOps;
 import net.mehvahdjukaar.polytone.Polytone;
 import net.mehvahdjukaar.polytone.utils.ClientFrameTicker;
+import net.mehvahdjukaar.polytone.utils.FrameContext;
 import net.mehvahdjukaar.polytone.utils.JsonPartialReloader;
+import net.mehvahdjukaar.polytone.utils.PartialReloader;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.FogRenderer;
 import net.minecraft.core.Holder;
@@ -24,6 +26,7 @@ import net.minecraft.world.phys.Vec2;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static net.mehvahdjukaar.polytone.utils.ITargetProvider.regKey;
@@ -39,6 +42,12 @@ public class BiomeEffectsManager extends JsonPartialReloader {
         super("biome_modifiers", "biome_effects");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        // fog expressions grab the noise functions when decoded
+        return List.of(Polytone.NOISES);
+    }
+
     private final Map<ResourceLocation, JsonElement> lazyJsons = new HashMap<>();
 
     private final Map<Biome, BiomeEffectModifier> fogParametersModifiers = new HashMap<>();
@@ -142,15 +151,15 @@ public class BiomeEffectsManager extends JsonPartialReloader {
         Minecraft mc = Minecraft.getInstance();
         Player player = mc.player;
         if (player == null) return null;
+        FrameContext frame = ClientFrameTicker.getFrameContext();
 
         //dont modify if a mob effect that modifies fog is active
-        if (FogRenderer.getPriorityFogFunction(player, mc.getDeltaTracker().getGameTimeDeltaPartialTick(false))
-                != null) return null;
+        if (FogRenderer.getPriorityFogFunction(player, frame.partialTick()) != null) return null;
 
         Level level = player.level();
 
-        Holder<Biome> biome = level.getBiome(player.blockPosition());
-        var fogMod = fogParametersModifiers.get(biome.value());
+        Holder<Biome> biome = frame.playerBiome();
+        var fogMod = biome == null ? null : fogParametersModifiers.get(biome.value());
         Vec2 fogScalars = null;
         if (fogMod != null) {
             fogScalars = fogMod.modifyFogParameters(level);
@@ -160,7 +169,7 @@ public class BiomeEffectsManager extends JsonPartialReloader {
             fogScalars = new Vec2(1, 1);
         }
         if (fogScalars != null) {
-            float deltaTime = ClientFrameTicker.getDeltaTime(); // Get time since last frame
+            float deltaTime = frame.deltaTime(); // Get time since last frame
             float interpolationFactor = deltaTime * 0.1f;
 
             // Interpolate towards the fogScalars values
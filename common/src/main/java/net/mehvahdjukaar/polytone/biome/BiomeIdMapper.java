@@ -1,15 +1,18 @@
 package net.mehvahdjukaar.polytone.biome;
 
 import com.mojang.serialization.Codec;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
 import net.mehvahdjukaar.polytone.Polytone;
 import net.mehvahdjukaar.polytone.utils.BiomeKeysCache;
 import net.mehvahdjukaar.polytone.utils.LegacyHelper;
 import net.mehvahdjukaar.polytone.utils.ReferenceOrDirectCodec;
+import net.minecraft.core.Holder;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.biome.Biome;
 
+import java.util.List;
 import java.util.Map;
 
 public interface BiomeIdMapper {
@@ -18,29 +21,78 @@ public interface BiomeIdMapper {
     Codec<BiomeIdMapper> CODEC = new ReferenceOrDirectCodec<>(
             Polytone.BIOME_ID_MAPPERS.byNameCodec(), Custom.CUSTOM_CODEC, false);
 
-    BiomeIdMapper BY_INDEX = (biome) -> {
-        int id = LegacyHelper.getBiomeId(biome);
-        //don't ask questions here, I changed it too many times. This works
-        return id / 255f;
+    BiomeIdMapper BY_INDEX = new Baked() {
+        @Override
+        protected float computeIndex(ResourceKey<Biome> biomeKey) {
+            int id = LegacyHelper.getBiomeId(biomeKey);
+            //don't ask questions here, I changed it too many times. This works
+            return id / 255f;
+        }
     };
 
     float getIndex(Biome biome);
 
-    record Custom(Map<ResourceKey<Biome>, Float> map, float textureSize) implements BiomeIdMapper {
+    // Flattens the mapper into an array indexed by biome registry id so sampling is just an array load.
+    // Anything that isn't baked yet (or a biome we don't know) falls back to the key lookup
+    abstract class Baked implements BiomeIdMapper {
 
-        public Custom(Map<ResourceKey<Biome>, Float> map) {
-            this(map, map.getOrDefault(ResourceKey.create(Registries.BIOME, ResourceLocation.withDefaultNamespace("texture_size")), 1f));
+        private volatile float[] byBiomeId = new float[0];
+
+        protected abstract float computeIndex(ResourceKey<Biome> biomeKey);
+
+        void bake(List<Holder.Reference<Biome>> biomes, Reference2IntMap<Biome> biomeIds) {
+            float[] array = new float[biomeIds.size()];
+            for (var holder : biomes) {
+                int id = biomeIds.getInt(holder.value());
+                if (id >= 0 && id < array.length) {
+                    array[id] = computeIndex(holder.key());
+                }
+            }
+            this.byBiomeId = array;
         }
 
+        @Override
+        public float getIndex(Biome biome) {
+            float[] array = this.byBiomeId;
+            int id = Polytone.BIOME_ID_MAPPERS.getBiomeId(biome);
+            if (id >= 0 && id < array.length) {
+                return array[id];
+            }
+            return computeIndex(BiomeKeysCache.get(biome));
+        }
+    }
+
+    final class Custom extends Baked {
+
         public static final Codec<Custom> CUSTOM_CODEC = Codec.unboundedMap(ResourceLocation.CODEC
                                 .xmap(r -> ResourceKey.create(Registries.BIOME, r), ResourceKey::location),
                         Codec.FLOAT)
-                .xmap(Custom::new, Custom::map);
+                .xmap(m -> Polytone.BIOME_ID_MAPPERS.track(new Custom(m)), Custom::map);
+
+        private final Map<ResourceKey<Biome>, Float> map;
+        private final float textureSize;
+
+        public Custom(Map<ResourceKey<Biome>, Float> map, float textureSize) {
+            this.map = map;
+            this.textureSize = textureSize;
+        }
+
+        public Custom(Map<ResourceKey<Biome>, Float> map) {
+            this(map, map.getOrDefault(ResourceKey.create(Registries.BIOME, ResourceLocation.withDefaultNamespace("texture_size")), 1f));
+        }
+
+        public Map<ResourceKey<Biome>, Float> map() {
+            return map;
+        }
+
+        public float textureSize() {
+            return textureSize;
+        }
 
         @Override
-        public float getIndex(Biome biome) {
+        protected float computeIndex(ResourceKey<Biome> biomeKey) {
             // no clue why 1 is needed
-            return (map.getOrDefault(BiomeKeysCache.get(biome), 0f)) / (textureSize - 1);
+            return (map.getOrDefault(biomeKey, 0f)) / (textureSize - 1);
         }
     }
 
@@ -3,14 +3,23 @@ package net.mehvahdjukaar.polytone.biome;
 import com.google.gson.JsonElement;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DynamicOps;
-import com.mojang.serialization.JsonOps;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMaps;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.utils.CompoundReloader;
 import net.mehvahdjukaar.polytone.utils.JsonPartialReloader;
 import net.mehvahdjukaar.polytone.utils.MapRegistry;
-import net.mehvahdjukaar.polytone.utils.ReferenceOrDirectCodec;
-import net.minecraft.client.color.block.BlockColors;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.biome.Biome;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 //
@@ -18,6 +27,16 @@ public class BiomeIdMapperManager extends JsonPartialReloader {
 
     private final MapRegistry<BiomeIdMapper> biomeIdMappers = new MapRegistry<>("Biome ID Mappers");
 
+    // inline mappers that aren't in the registry but still need baking, by the reloader that decoded them.
+    // cleared per owner by the compound reloader since their owners can reload without us
+    private final Map<Object, List<BiomeIdMapper.Baked>> inlineMappers = new IdentityHashMap<>();
+    // what we last baked against, so inline mappers decoded after level load can be baked straight away
+    @Nullable
+    private List<Holder.Reference<Biome>> bakedBiomes = null;
+
+    // biome -> registry id of the current level. Swapped as a whole so render threads never see it half built
+    private volatile Reference2IntMap<Biome> biomeIds = emptyIds();
+
     public BiomeIdMapperManager() {
         super("biome_id_mappers");
     }
@@ -27,6 +46,10 @@ public class BiomeIdMapperManager extends JsonPartialReloader {
         biomeIdMappers.clear();
     }
 
+    public void clearInlineOwnedBy(Object owner) {
+        inlineMappers.remove(owner);
+    }
+
     @Override
     protected void process(Map<ResourceLocation, JsonElement> obj, DynamicOps<JsonElement> ops) {
         for (var j : obj.entrySet()) {
@@ -43,7 +66,60 @@ public class BiomeIdMapperManager extends JsonPartialReloader {
         }
     }
 
+    // called after all colormaps have been parsed, so inline mappers are known too
+    @Override
+    protected void applyWithLevel(HolderLookup.Provider access, boolean firstLogin) {
+        List<Holder.Reference<Biome>> biomes = access.lookupOrThrow(Registries.BIOME).listElements().toList();
+        Reference2IntMap<Biome> ids = new Reference2IntOpenHashMap<>(biomes.size());
+        ids.defaultReturnValue(-1);
+        // listed in registry order, so these match the registry ids
+        for (var holder : biomes) {
+            ids.put(holder.value(), ids.size());
+        }
+
+        bake(BiomeIdMapper.BY_INDEX, biomes, ids);
+        for (var mapper : biomeIdMappers.getValues()) {
+            bake(mapper, biomes, ids);
+        }
+        for (var list : inlineMappers.values()) {
+            for (var mapper : list) {
+                bake(mapper, biomes, ids);
+            }
+        }
+        this.biomeIds = ids;
+        this.bakedBiomes = biomes;
+    }
+
+    private static void bake(BiomeIdMapper mapper, List<Holder.Reference<Biome>> biomes, Reference2IntMap<Biome> ids) {
+        if (mapper instanceof BiomeIdMapper.Baked b) {
+            b.bake(biomes, ids);
+        }
+    }
+
+    public void onLevelUnload() {
+        this.biomeIds = emptyIds();
+        this.bakedBiomes = null;
+    }
+
+    public int getBiomeId(Biome biome) {
+        return biomeIds.getInt(biome);
+    }
+
+    <T extends BiomeIdMapper.Baked> T track(T mapper) {
+        inlineMappers.computeIfAbsent(CompoundReloader.getProcessing(), o -> new ArrayList<>()).add(mapper);
+        // this reloader might not run again if only the owner changed
+        var biomes = this.bakedBiomes;
+        if (biomes != null) mapper.bake(biomes, biomeIds);
+        return mapper;
+    }
+
     public Codec<BiomeIdMapper> byNameCodec() {
         return biomeIdMappers;
     }
+
+    private static Reference2IntMap<Biome> emptyIds() {
+        Reference2IntOpenHashMap<Biome> map = new Reference2IntOpenHashMap<>();
+        map.defaultReturnValue(-1);
+        return Reference2IntMaps.unmodifiable(map);
+    }
 }
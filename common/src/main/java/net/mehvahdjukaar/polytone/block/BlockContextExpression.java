@@ -2,10 +2,16 @@ package net.mehvahdjukaar.polytone.block;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
+import net.mehvahdjukaar.polytone.utils.ExpressionCost;
+import net.mehvahdjukaar.polytone.utils.ExpressionErrorTracker;
+import net.mehvahdjukaar.polytone.utils.ExpressionSpec;
 import net.mehvahdjukaar.polytone.utils.ExpressionUtils;
+import net.mehvahdjukaar.polytone.utils.FrameContext;
 import net.mehvahdjukaar.polytone.utils.ClientFrameTicker;
-import net.minecraft.client.Minecraft;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LightLayer;
@@ -16,6 +22,7 @@ import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
 import net.objecthunter.exp4j.function.Function;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -65,13 +72,17 @@ public class BlockContextExpression {
 
     private static final ThreadLocal<BlockState> STATE_HACK = new ThreadLocal<>();
 
-    public static final Codec<BlockContextExpression> CODEC = Codec.STRING.flatXmap(s -> {
+    public static final Codec<BlockContextExpression> CODEC = ExpressionSpec.CODEC.flatXmap(spec -> {
+        String s = spec.expression();
         try {
-            return DataResult.success(new BlockContextExpression(s));
+            var expression = new BlockContextExpression(s);
+            ExpressionCost.warnIfExpensive(s);
+            expression.errors.setBudget(spec.budgetMicros());
+            return DataResult.success(expression);
         } catch (Exception e) {
             return DataResult.error(() -> "Failed to parse expression:" + e.getMessage());
         }
-    }, javaxExpression -> DataResult.success(javaxExpression.unparsed));
+    }, javaxExpression -> DataResult.success(new ExpressionSpec(javaxExpression.unparsed, javaxExpression.errors.getBudget())));
 
 
     private static Expression createExpression(String s) {
@@ -84,6 +95,10 @@ public class BlockContextExpression {
 
     private final Expression expression;
     private final String unparsed;
+    // file this was decoded from, only known when resource profiling is on
+    @Nullable
+    private final ResourceLocation source = ResourceCostProfiler.decodingSource();
+    private final ExpressionErrorTracker errors;
 
     private final boolean hasTime;
     private final boolean hasRain;
@@ -103,6 +118,7 @@ public class BlockContextExpression {
     public BlockContextExpression(Expression expression, String unparsed) {
         this.expression = expression;
         this.unparsed = unparsed;
+        this.errors = new ExpressionErrorTracker(unparsed);
         this.hasTime = unparsed.contains(TIME);
         this.hasX = unparsed.contains(POS_X);
         this.hasY = unparsed.contains(POS_Y);
@@ -116,36 +132,49 @@ public class BlockContextExpression {
     }
 
     //TODO: turn into entity context expression
-    public double getValue(Vec3 pos, float entityTime) {
+    // fallback is what the caller would use without this expression, returned once it gets disabled
+    public double getValue(Vec3 pos, float entityTime, double fallback) {
         ExpressionUtils.randomizeRandom();
         if (hasX) expression.setVariable(POS_X, pos.x);
         if (hasY) expression.setVariable(POS_Y, pos.y);
         if (hasZ) expression.setVariable(POS_Z, pos.z);
         if (hasTime) expression.setVariable(TIME, entityTime);
-        if (hasRain) expression.setVariable(RAIN, ClientFrameTicker.getRainAndThunder());
-        if (hasDayTime) expression.setVariable(DAY_TIME, ClientFrameTicker.getDayTime());
+        FrameContext frame = ClientFrameTicker.getFrameContext();
+        if (hasRain) expression.setVariable(RAIN, frame.rainAndThunder());
+        if (hasDayTime) expression.setVariable(DAY_TIME, frame.dayTime());
         if (hasDistance) {
-            var e = Minecraft.getInstance().getCameraEntity();
-            double x = pos.x - e.getX();
-            double y = pos.y - e.getY();
-            double z = pos.z - e.getZ();
-            expression.setVariable(DISTANCE_SQUARED, x * x + y * y + z * z);
+            expression.setVariable(DISTANCE_SQUARED, frame.distanceSqrToCameraEntity(pos.x, pos.y, pos.z));
         }
-        return expression.evaluate();
+        return evaluate(fallback);
     }
 
-    public double getValue(Level level, @NotNull BlockPos pos, BlockState state) {
+    public double getValue(Level level, @NotNull BlockPos pos, BlockState state, double fallback) {
         ExpressionUtils.seedRandom(pos.hashCode() * pos.asLong());
         if (hasX) expression.setVariable(POS_X, pos.getX());
         if (hasY) expression.setVariable(POS_Y, pos.getY());
         if (hasZ) expression.setVariable(POS_Z, pos.getZ());
-        if (hasTime) expression.setVariable(TIME, ClientFrameTicker.getGameTime());
-        if (hasRain) expression.setVariable(RAIN, ClientFrameTicker.getRainAndThunder());
-        if (hasDayTime) expression.setVariable(DAY_TIME, ClientFrameTicker.getDayTime());
+        FrameContext frame = ClientFrameTicker.getFrameContext();
+        if (hasTime) expression.setVariable(TIME, frame.gameTime());
+        if (hasRain) expression.setVariable(RAIN, frame.rainAndThunder());
+        if (hasDayTime) expression.setVariable(DAY_TIME, frame.dayTime());
         if (hasSkyLight) expression.setVariable(SKY_LIGHT, level.getBrightness(LightLayer.SKY, pos));
         if (hasBlockLight) expression.setVariable(BLOCK_LIGHT, level.getBrightness(LightLayer.BLOCK, pos));
         if (hasState) STATE_HACK.set(state);
-        return expression.evaluate();
+        return evaluate(fallback);
+    }
+
+    private double evaluate(double fallback) {
+        // pinned to the caller's default after failing too often
+        if (errors.isDisabled()) return fallback;
+        try {
+            long budgetStart = errors.startBudget();
+            double value = HotPathMetrics.evaluate(HotPathMetrics.Hook.BLOCK_EXPRESSION, expression, source);
+            errors.checkBudget(budgetStart);
+            return value;
+        } catch (RuntimeException e) {
+            errors.onError(e);
+            return fallback;
+        }
     }
 
     public static final BlockContextExpression ZERO = new BlockContextExpression("0");
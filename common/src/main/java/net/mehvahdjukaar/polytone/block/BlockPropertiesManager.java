@@ -12,6 +12,7 @@ import net.mehvahdjukaar.polytone.utils.ArrayImage;
 import net.mehvahdjukaar.polytone.utils.LegacyHelper;
 import net.mehvahdjukaar.polytone.utils.PartialReloader;
 import net.mehvahdjukaar.polytone.utils.PropertiesUtils;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.color.block.BlockColor;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -28,6 +29,8 @@ import static net.minecraft.server.packs.resources.SimpleJsonResourceReloadListe
 public class BlockPropertiesManager extends PartialReloader<BlockPropertiesManager.Resources> {
 
     private final Map<Block, BlockPropertyModifier> vanillaProperties = new HashMap<>();
+    // old vanilla properties of blocks modified by the previous reload, waiting to be diffed against the new modifiers
+    private final Map<Block, BlockPropertyModifier> pendingRestore = new HashMap<>();
 
     // Block ID to modifier
     private final Map<Block, BlockPropertyModifier> modifiers = new HashMap<>();
@@ -37,6 +40,16 @@ public class BlockPropertiesManager extends PartialReloader<BlockPropertiesManag
         super("block_modifiers", "block_properties");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of(Polytone.SOUND_TYPES, Polytone.COLORMAPS, Polytone.BLOCK_SET);
+    }
+
+    @Override
+    protected List<PartialReloader<?>> getWriteTargets() {
+        return List.of(Polytone.FLUID_MODIFIERS, Polytone.DIMENSION_MODIFIERS, Polytone.VARIANT_TEXTURES);
+    }
+
 
     public record Resources(Map<ResourceLocation, JsonElement> jsons,
                             Map<ResourceLocation, ArrayImage> textures,
@@ -89,9 +102,11 @@ public class BlockPropertiesManager extends PartialReloader<BlockPropertiesManag
             ResourceLocation id = j.getKey();
 
 
+            ResourceCostProfiler.beginDecode(sourceFile(id));
             BlockPropertyModifier prop = BlockPropertyModifier.CODEC.decode(ops, json)
                     .getOrThrow(errorMsg -> new IllegalStateException("Could not decode Client Block Property with json id " + id + "\n error: " + errorMsg))
                     .getFirst();
+            ResourceCostProfiler.endDecode();
 
             //always have priority
             if (parsedModifiers.containsKey(id)) {
@@ -147,9 +162,8 @@ public class BlockPropertiesManager extends PartialReloader<BlockPropertiesManag
 
     @Override
     public void reset() {
-        for (var e : vanillaProperties.entrySet()) {
-            e.getValue().apply(e.getKey());
-        }
+        // blocks are only restored in apply, and only if their new modifier actually changes something
+        pendingRestore.putAll(vanillaProperties);
         vanillaProperties.clear();
         modifiers.clear();
         optifineColormapsToBlocks.clear();
@@ -158,11 +172,26 @@ public class BlockPropertiesManager extends PartialReloader<BlockPropertiesManag
 
     @Override
     public void apply() {
+        Set<Block> changed = new HashSet<>();
+        for (var e : pendingRestore.entrySet()) {
+            if (!modifiers.containsKey(e.getKey())) {
+                e.getValue().apply(e.getKey());
+                changed.add(e.getKey());
+            }
+        }
         for (var e : modifiers.entrySet()) {
             Block target = e.getKey();
 
             BlockPropertyModifier value = e.getValue();
-            vanillaProperties.put(target, value.apply(target));
+            BlockPropertyModifier old = pendingRestore.get(target);
+            if (value.isAlreadyApplied(target, old)) {
+                // nothing to touch. keeps the original vanilla properties from when it was first modified
+                vanillaProperties.put(target, old != null ? old : value.apply(target));
+            } else {
+                if (old != null) old.apply(target);
+                vanillaProperties.put(target, value.apply(target));
+                changed.add(target);
+            }
 
             var particle = value.particleEmitters();
             particle.ifPresent(emitters -> particleAndSoundEmitters.computeIfAbsent(target, t -> new ArrayList<>())
@@ -173,10 +202,11 @@ public class BlockPropertiesManager extends PartialReloader<BlockPropertiesManag
                     .addAll(emitters));
         }
         if (!vanillaProperties.isEmpty()) {
-            Polytone.LOGGER.info("Applied {} Block Modifiers", vanillaProperties.size());
+            Polytone.LOGGER.info("Applied {} Block Modifiers, {} blocks changed", vanillaProperties.size(), changed.size());
         }
         //clear as we dont need the anymore
         modifiers.clear();
+        pendingRestore.clear();
     }
 
     //optifine stuff
@@ -189,6 +189,43 @@ public record BlockPropertyModifier(
     }
 
 
+    // true if restoring the given old properties and then applying this would leave the block exactly as it is now.
+    // lets a reload skip blocks whose effective properties did not change
+    public boolean isAlreadyApplied(Block block, @Nullable BlockPropertyModifier vanilla) {
+        if (tintHack || blockSetType.isPresent() || (vanilla != null && vanilla.blockSetType.isPresent())) return false;
+
+        var tint = pick(tintGetter, vanilla == null ? Optional.empty() : vanilla.tintGetter);
+        if (tint.isPresent() && tint.get() != PlatStuff.getBlockColor(Minecraft.getInstance().getBlockColors(), block)) {
+            return false;
+        }
+        var sound = pick(soundType, vanilla == null ? Optional.empty() : vanilla.soundType);
+        if (sound.isPresent() && sound.get() != block.soundType) return false;
+
+        var offset = pick(offsetType, vanilla == null ? Optional.empty() : vanilla.offsetType);
+        if (offset.isPresent() && offset.get() != block.defaultBlockState().offsetFunction) return false;
+
+        if (!Polytone.isForge) {
+            var render = pick(renderType, vanilla == null ? Optional.empty() : vanilla.renderType);
+            if (render.isPresent() && render.get().toVanilla() != PlatStuff.getRenderType(block)) return false;
+        }
+
+        var map = pick(mapColor, vanilla == null ? Optional.empty() : vanilla.mapColor);
+        var occlude = pick(canOcclude, vanilla == null ? Optional.empty() : vanilla.canOcclude);
+        var particles = pick(spawnParticlesOnBreak, vanilla == null ? Optional.empty() : vanilla.spawnParticlesOnBreak);
+        var light = pick(clientLight, vanilla == null ? Optional.empty() : vanilla.clientLight);
+        for (var s : block.getStateDefinition().getPossibleStates()) {
+            if (map.isPresent() && map.get().apply(s) != s.mapColor) return false;
+            if (occlude.isPresent() && occlude.get() != s.canOcclude) return false;
+            if (particles.isPresent() && particles.get() != s.spawnTerrainParticles) return false;
+            if (light.isPresent() && light.get().applyAsInt(s) != s.lightEmission) return false;
+        }
+        return true;
+    }
+
+    private static <T> Optional<? extends T> pick(Optional<? extends T> value, Optional<? extends T> fallback) {
+        return value.isPresent() ? value : fallback;
+    }
+
     public static final Decoder<BlockPropertyModifier> CODEC = RecordCodecBuilder.create(instance ->
             instance.group(
                     IndexCompoundColorGetter.SINGLE_OR_MULTIPLE.optionalFieldOf("colormap").forGetter(b -> b.tintGetter.flatMap(t -> java.util.Optional.ofNullable(t instanceof IndexCompoundColorGetter c ? c : null))),
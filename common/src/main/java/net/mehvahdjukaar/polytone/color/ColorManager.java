@@ -10,7 +10,9 @@ import net.mehvahdjukaar.polytone.Polytone;
 import net.mehvahdjukaar.polytone.block.BlockContextExpression;
 import net.mehvahdjukaar.polytone.mixins.accessor.DustParticleOptionAccessor;
 import net.mehvahdjukaar.polytone.mixins.accessor.SheepAccessor;
+import net.mehvahdjukaar.polytone.utils.ActivationFlag;
 import net.mehvahdjukaar.polytone.utils.ColorUtils;
+import net.mehvahdjukaar.polytone.utils.PartialReloader;
 import net.mehvahdjukaar.polytone.utils.SingleJsonOrPropertiesReloadListener;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.renderer.entity.state.ExperienceOrbRenderState;
@@ -36,6 +38,9 @@ import java.util.function.Function;
 
 public class ColorManager extends SingleJsonOrPropertiesReloadListener {
 
+    // checked for every xp orb vertex
+    public static final ActivationFlag XP_ORB_ACTIVE = ActivationFlag.create();
+
     private static final int DEFAULT_COLOR = ARGB.colorFromFloat(1.0f, 1, 0, 0);
     private final Object2IntMap<MapColor> vanillaMapColors = new Object2IntOpenHashMap<>();
     private final Map<DyeColor, Integer> vanillaFireworkColors = new EnumMap<>(DyeColor.class);
@@ -68,6 +73,16 @@ public class ColorManager extends SingleJsonOrPropertiesReloadListener {
                 Polytone.MOD_ID, "colormatic", "vanadium", "optifine");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of(Polytone.COLORMAPS);
+    }
+
+    @Override
+    protected List<PartialReloader<?>> getWriteTargets() {
+        return List.of(Polytone.PARTICLE_MODIFIERS, Polytone.BLOCK_MODIFIERS);
+    }
+
     public int getXpBar() {
         return xpBar;
     }
@@ -96,6 +111,7 @@ public class ColorManager extends SingleJsonOrPropertiesReloadListener {
         }
 
         regenSheepColors();
+        XP_ORB_ACTIVE.set(xpOrbColor != null || xpOrbColorR != null || xpOrbColorG != null || xpOrbColorB != null);
     }
 
 
@@ -314,6 +330,7 @@ public class ColorManager extends SingleJsonOrPropertiesReloadListener {
         xpOrbColorR = null;
         xpOrbColorG = null;
         xpOrbColorB = null;
+        XP_ORB_ACTIVE.set(false);
         // map colors
         for (var e : vanillaMapColors.entrySet()) {
             MapColor color = e.getKey();
@@ -381,16 +398,18 @@ public class ColorManager extends SingleJsonOrPropertiesReloadListener {
     public float[] getXpOrbColor(ExperienceOrbRenderState orb, float partialTicks) {
         Vec3 orbPos = new Vec3(orb.x, orb.y, orb.z);
         if (xpOrbColor != null) {
-            int color = (int) xpOrbColor.getValue(orbPos, orb.ageInTicks + partialTicks);
-            return ColorUtils.unpack(color);
+            // NaN once the expression got disabled, vanilla colors then
+            double color = xpOrbColor.getValue(orbPos, orb.ageInTicks + partialTicks, Double.NaN);
+            return Double.isNaN(color) ? null : ColorUtils.unpack((int) color);
         }
         if (xpOrbColorR == null && xpOrbColorG == null && xpOrbColorB == null) return null;
         float r = 0;
         float g = 0;
         float b = 0;
-        if (xpOrbColorR != null) r = (float) xpOrbColorR.getValue(orbPos, orb.ageInTicks + partialTicks);
-        if (xpOrbColorG != null) g = (float) xpOrbColorG.getValue(orbPos, orb.ageInTicks + partialTicks);
-        if (xpOrbColorB != null) b = (float) xpOrbColorB.getValue(orbPos, orb.ageInTicks + partialTicks);
+        if (xpOrbColorR != null) r = (float) xpOrbColorR.getValue(orbPos, orb.ageInTicks + partialTicks, Double.NaN);
+        if (xpOrbColorG != null) g = (float) xpOrbColorG.getValue(orbPos, orb.ageInTicks + partialTicks, Double.NaN);
+        if (xpOrbColorB != null) b = (float) xpOrbColorB.getValue(orbPos, orb.ageInTicks + partialTicks, Double.NaN);
+        if (Float.isNaN(r) || Float.isNaN(g) || Float.isNaN(b)) return null;
         return new float[]{r, g, b};
     }
 
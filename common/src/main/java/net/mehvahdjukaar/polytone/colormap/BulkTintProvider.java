@@ -0,0 +1,14 @@
+package net.mehvahdjukaar.polytone.colormap;
+
+import net.minecraft.world.level.BlockAndTintGetter;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+// Tints many positions in one go. Implementations are free to share biome lookups and expression contexts
+// between entries of the same batch. Positions are BlockPos.asLong packed
+@FunctionalInterface
+public interface BulkTintProvider {
+
+    void getColors(@Nullable BlockAndTintGetter level, BlockState[] states, long[] packedPos, int tintIndex,
+                   int[] out, int from, int to);
+}
@@ -7,6 +7,8 @@ import net.mehvahdjukaar.polytone.biome.BiomeIdMapper;
 import net.mehvahdjukaar.polytone.utils.ArrayImage;
 import net.mehvahdjukaar.polytone.utils.ColorUtils;
 import net.mehvahdjukaar.polytone.utils.ReferenceOrDirectCodec;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Cursor3D;
@@ -21,6 +23,7 @@ import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.block.state.BlockState;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -30,6 +33,9 @@ public class Colormap implements IColorGetter, ColorResolver {
     private final IColormapNumberProvider yGetter;
     private final BiomeIdMapper biomeMapper;
     private final boolean triangular;
+    // file this was decoded from, only known when resource profiling is on
+    @Nullable
+    private final ResourceLocation source = ResourceCostProfiler.decodingSource();
     private final boolean hasBiomeBlend; //if this should be used as ColorResolver, allowing for biome blend
     private final boolean usesBiome;
     private final boolean usesPos;
@@ -111,6 +117,17 @@ public class Colormap implements IColorGetter, ColorResolver {
     // Dont use tint index
     @Override
     public int getColor(@Nullable BlockState state, @Nullable BlockAndTintGetter level, @Nullable BlockPos pos, int i) {
+        long start = HotPathMetrics.start(HotPathMetrics.Hook.COLORMAP);
+        Object previous = ResourceCostProfiler.enter(source);
+        try {
+            return computeColor(state, level, pos);
+        } finally {
+            ResourceCostProfiler.exit(previous);
+            HotPathMetrics.stop(HotPathMetrics.Hook.COLORMAP, start);
+        }
+    }
+
+    private int computeColor(@Nullable BlockState state, @Nullable BlockAndTintGetter level, @Nullable BlockPos pos) {
         if (level == null) return defaultColor;
         if (pos == null && (usesPos || usesBiome)) {
             return defaultColor;
@@ -133,11 +150,81 @@ public class Colormap implements IColorGetter, ColorResolver {
     }
 
     public int sampleColor(@Nullable BlockState state, @Nullable BlockPos pos, @Nullable Biome biome, @Nullable ItemStack item) {
+        return sampleColor(xGetter, yGetter, state, pos, biome, item);
+    }
+
+    private int sampleColor(IColormapNumberProvider xGetter, IColormapNumberProvider yGetter,
+                            @Nullable BlockState state, @Nullable BlockPos pos, @Nullable Biome biome, @Nullable ItemStack item) {
         float temperature = Mth.clamp(xGetter.getValue(state, pos, biome, biomeMapper, item), 0, 1);
         float humidity = Mth.clamp(yGetter.getValue(state, pos, biome, biomeMapper, item), 0, 1);
         return sample(humidity, temperature, defaultColor);
     }
 
+    // Same as getColor but for a whole batch. Thread locals are only touched when state or y change
+    // and expression providers are copied once per batch instead of once per sample
+    @Override
+    public void getColors(@Nullable BlockAndTintGetter level, BlockState[] states, long[] packedPos, int tintIndex,
+                          int[] out, int from, int to) {
+        HotPathMetrics.count(HotPathMetrics.Hook.COLORMAP, to - from);
+        Object previous = ResourceCostProfiler.enter(source);
+        try {
+            computeColors(level, states, packedPos, out, from, to);
+        } finally {
+            ResourceCostProfiler.exit(previous);
+        }
+    }
+
+    private void computeColors(@Nullable BlockAndTintGetter level, BlockState[] states, long[] packedPos,
+                               int[] out, int from, int to) {
+        if (level == null) {
+            Arrays.fill(out, from, to, defaultColor);
+            return;
+        }
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        if (hasBiomeBlend) {
+            BlockState lastState = null;
+            int lastY = Integer.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                BlockState state = states[i];
+                if (state == null && usesState) {
+                    out[i] = defaultColor;
+                    continue;
+                }
+                pos.set(packedPos[i]);
+                if (i == from || state != lastState) {
+                    stateHack.set(state);
+                    lastState = state;
+                }
+                if (pos.getY() != lastY) {
+                    lastY = pos.getY();
+                    yHack.set(lastY);
+                }
+                out[i] = level.getBlockTint(pos, this);
+            }
+            return;
+        }
+        IColormapNumberProvider x = xGetter.forBatch();
+        IColormapNumberProvider y = yGetter.forBatch();
+        LevelReader biomeGetter = usesBiome && level instanceof LevelReader l ? l : null;
+        long lastPos = 0;
+        Biome biome = null;
+        for (int i = from; i < to; i++) {
+            BlockState state = states[i];
+            if (state == null && usesState) {
+                out[i] = defaultColor;
+                continue;
+            }
+            long packed = packedPos[i];
+            pos.set(packed);
+            // biomes are fuzzed per block so we can only reuse them for repeated positions
+            if (biomeGetter != null && (biome == null || packed != lastPos)) {
+                biome = biomeGetter.getBiome(pos).value();
+                lastPos = packed;
+            }
+            out[i] = sampleColor(x, y, state, pos, biome, null);
+        }
+    }
+
     // gets color for blend
     @Override
     public int getColor(Biome biome, double x, double z) {
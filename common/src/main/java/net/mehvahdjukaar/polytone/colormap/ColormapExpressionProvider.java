@@ -2,12 +2,18 @@ package net.mehvahdjukaar.polytone.colormap;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
-import net.mehvahdjukaar.polytone.Polytone;
 import net.mehvahdjukaar.polytone.biome.BiomeIdMapper;
 import net.mehvahdjukaar.polytone.utils.ClientFrameTicker;
 import net.mehvahdjukaar.polytone.utils.ColorUtils;
+import net.mehvahdjukaar.polytone.utils.ExpressionCost;
+import net.mehvahdjukaar.polytone.utils.ExpressionErrorTracker;
+import net.mehvahdjukaar.polytone.utils.ExpressionSpec;
 import net.mehvahdjukaar.polytone.utils.ExpressionUtils;
+import net.mehvahdjukaar.polytone.utils.FrameContext;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.Mth;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.biome.Biome;
@@ -68,14 +74,18 @@ public final class ColormapExpressionProvider implements IColormapNumberProvider
     private static final ThreadLocal<BlockState> STATE_HACK = new ThreadLocal<>();
 
 
-    public static final Codec<ColormapExpressionProvider> CODEC = Codec.STRING.flatXmap(s -> {
+    public static final Codec<ColormapExpressionProvider> CODEC = ExpressionSpec.CODEC.flatXmap(spec -> {
+        String s = spec.expression();
         try {
             Expression compiled = createExpression(s);
-            return DataResult.success(new ColormapExpressionProvider(compiled, s));
+            ExpressionCost.warnIfExpensive(s);
+            var provider = new ColormapExpressionProvider(compiled, s);
+            provider.errors.setBudget(spec.budgetMicros());
+            return DataResult.success(provider);
         } catch (Exception e) {
             return DataResult.error(() -> "Failed to parse expression:" + e.getMessage());
         }
-    }, javaxExpression -> DataResult.success(javaxExpression.unparsed));
+    }, javaxExpression -> DataResult.success(new ExpressionSpec(javaxExpression.unparsed, javaxExpression.errors.getBudget())));
 
     private static Expression createExpression(String s) {
         return new ExpressionBuilder(ExpressionUtils.removeHex(s))
@@ -87,6 +97,11 @@ public final class ColormapExpressionProvider implements IColormapNumberProvider
 
     private final String unparsed;
     private final Expression expression;
+    // file this was decoded from, only known when resource profiling is on
+    @Nullable
+    private final ResourceLocation source;
+    // shared with batch copies
+    private final ExpressionErrorTracker errors;
 
     // we use this optimistic approach instead of a lock because it's faster,
     // and we don't really care about blocking as we can just use new if its locked
@@ -99,9 +114,20 @@ public final class ColormapExpressionProvider implements IColormapNumberProvider
     private final boolean hasDayTime;
     private final boolean hasSunTime;
 
+    // batch copies own their expression and are only ever used by a single thread
+    private final boolean ownsExpression;
+
     private ColormapExpressionProvider(Expression expression, String unparsed) {
+        this(expression, unparsed, false, ResourceCostProfiler.decodingSource(), new ExpressionErrorTracker(unparsed));
+    }
+
+    private ColormapExpressionProvider(Expression expression, String unparsed, boolean ownsExpression,
+                                       @Nullable ResourceLocation source, ExpressionErrorTracker errors) {
         this.expression = expression;
         this.unparsed = unparsed;
+        this.ownsExpression = ownsExpression;
+        this.source = source;
+        this.errors = errors;
 
         this.hasTemperature = unparsed.contains(TEMPERATURE);
         this.hasDownfall = unparsed.contains(DOWNFALL);
@@ -116,6 +142,11 @@ public final class ColormapExpressionProvider implements IColormapNumberProvider
         return new ColormapExpressionProvider(createExpression(s), s);
     }
 
+    @Override
+    public IColormapNumberProvider forBatch() {
+        return new ColormapExpressionProvider(new Expression(this.expression), unparsed, true, source, errors);
+    }
+
     @Override
     public boolean usesBiome() {
         return unparsed.contains(TEMPERATURE) || unparsed.contains(DOWNFALL)
@@ -136,11 +167,16 @@ public final class ColormapExpressionProvider implements IColormapNumberProvider
     public float getValue(@Nullable BlockState state, @Nullable BlockPos pos, @Nullable Biome biome,
                           @Nullable BiomeIdMapper mapper, @Nullable ItemStack stack) {
         float result = 0;
+        // pinned to the default after failing too often
+        if (errors.isDisabled()) return result;
         boolean needsToUnlock = false;
         try {
             Expression exp;
+            if (ownsExpression) {
+                exp = expression;
+            }
             // no other code has acquired this yet so we can use our instance
-            if (false && nonBlockingLock.compareAndSet(false, true)) {
+            else if (false && nonBlockingLock.compareAndSet(false, true)) {
                 exp = expression;
                 needsToUnlock = true;
             } else {
@@ -157,10 +193,11 @@ public final class ColormapExpressionProvider implements IColormapNumberProvider
             exp.setVariable(POS_Y, pos != null ? pos.getY() : 0);
             exp.setVariable(POS_Z, pos != null ? pos.getZ() : 0);
 
-            if (hasRain) exp.setVariable(RAIN, ClientFrameTicker.getRainAndThunder());
-            if (hasTime) exp.setVariable(TIME, ClientFrameTicker.getGameTime());
-            if (hasDayTime) exp.setVariable(DAY_TIME, ClientFrameTicker.getDayTime());
-            if (hasSunTime) exp.setVariable(SUN_TIME, ClientFrameTicker.getSunTime());
+            FrameContext frame = ClientFrameTicker.getFrameContext();
+            if (hasRain) exp.setVariable(RAIN, frame.rainAndThunder());
+            if (hasTime) exp.setVariable(TIME, frame.gameTime());
+            if (hasDayTime) exp.setVariable(DAY_TIME, frame.dayTime());
+            if (hasSunTime) exp.setVariable(SUN_TIME, frame.sunTime());
 
             if (stack != null) {
                 float damage = 1 - stack.getDamageValue() / (float) stack.getMaxDamage();
@@ -174,11 +211,14 @@ public final class ColormapExpressionProvider implements IColormapNumberProvider
             STATE_HACK.set(state);
             if (pos != null) ExpressionUtils.seedRandom(pos.hashCode() * pos.asLong());
             else ExpressionUtils.randomizeRandom();
-            result = (float) exp.evaluate();
+            long budgetStart = errors.startBudget();
+            result = (float) HotPathMetrics.evaluate(HotPathMetrics.Hook.COLORMAP_EXPRESSION, exp, source);
+            errors.checkBudget(budgetStart);
             STATE_HACK.remove();
 
         } catch (Exception e) {
-            Polytone.LOGGER.error("Failed to evaluate expression with value: {}", unparsed, e);
+            errors.onError(e);
+            result = 0;
         } finally {
             if (needsToUnlock) nonBlockingLock.set(false);
         }
@@ -8,6 +8,8 @@ import net.mehvahdjukaar.polytone.Polytone;
 import net.mehvahdjukaar.polytone.utils.ArrayImage;
 import net.mehvahdjukaar.polytone.utils.JsonImgPartialReloader;
 import net.mehvahdjukaar.polytone.utils.MapRegistry;
+import net.mehvahdjukaar.polytone.utils.PartialReloader;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.color.block.BlockColor;
 import net.minecraft.client.renderer.BiomeColors;
 import net.minecraft.resources.ResourceLocation;
@@ -16,6 +18,7 @@ import net.minecraft.world.level.GrassColor;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -44,6 +47,11 @@ public class ColormapsManager extends JsonImgPartialReloader {
         super("colormaps");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of(Polytone.NOISES, Polytone.BIOME_ID_MAPPERS);
+    }
+
     @Override
     public void process(Resources resources, DynamicOps<JsonElement> ops) {
         var jsons = resources.jsons();
@@ -55,9 +63,11 @@ public class ColormapsManager extends JsonImgPartialReloader {
             var json = j.getValue();
             var id = j.getKey();
 
+            ResourceCostProfiler.beginDecode(sourceFile(id));
             Colormap colormap = Colormap.DIRECT_CODEC.decode(ops, json)
                     .getOrThrow(errorMsg -> new IllegalStateException("Could not decode Colormap with json id " + id + "\n error: " + errorMsg))
                     .getFirst();
+            ResourceCostProfiler.endDecode();
 colormap.inlined = false;
             tryAcceptingTexture(textures, id, colormap, usedTextures, true);
 
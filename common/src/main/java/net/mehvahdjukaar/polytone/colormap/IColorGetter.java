@@ -8,9 +8,19 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.BlockAndTintGetter;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
 
-public interface IColorGetter extends BlockColor, ItemColor {
+public interface IColorGetter extends BlockColor, ItemColor, BulkTintProvider {
 
+    // plain per position loop. Implementations should override this when they can share work across the batch
+    @Override
+    default void getColors(@Nullable BlockAndTintGetter level, BlockState[] states, long[] packedPos, int tintIndex,
+                           int[] out, int from, int to) {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int i = from; i < to; i++) {
+            out[i] = getColor(states[i], level, pos.set(packedPos[i]), tintIndex);
+        }
+    }
 
     record OfBlock(BlockColor bc) implements IColorGetter {
         @Override
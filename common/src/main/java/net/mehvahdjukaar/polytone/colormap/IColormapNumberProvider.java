@@ -26,6 +26,11 @@ public interface IColormapNumberProvider {
     float getValue(@Nullable BlockState state, @Nullable BlockPos pos, @Nullable Biome biome,
                    @Nullable BiomeIdMapper mapper, @Nullable ItemStack stack);
 
+    // returns a provider that can be reused for a whole batch on the calling thread
+    default IColormapNumberProvider forBatch() {
+        return this;
+    }
+
     default boolean usesBiome() {
         return true;
     }
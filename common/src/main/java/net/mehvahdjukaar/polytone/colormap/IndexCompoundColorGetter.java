@@ -12,6 +12,7 @@ import net.minecraft.world.level.BlockAndTintGetter;
 import net.minecraft.world.level.block.state.BlockState;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 
@@ -78,6 +79,21 @@ public class IndexCompoundColorGetter implements IColorGetter {
     }
 
 
+    @Override
+    public void getColors(@Nullable BlockAndTintGetter level, BlockState[] states, long[] packedPos, int tintIndex,
+                          int[] out, int from, int to) {
+        IColorGetter getter = getters.get(tintIndex);
+        if (getter == null) {
+            getter = getters.get(-1);
+        }
+        if (getter != null) {
+            getter.getColors(level, states, packedPos, tintIndex, out, from, to);
+        } else {
+            Arrays.fill(out, from, to, -1);
+        }
+    }
+
+
     @Override
     public int getColor(ItemStack itemStack, int i) {
         ItemColor getter = getters.get(i);
@@ -0,0 +1,79 @@
+package net.mehvahdjukaar.polytone.colormap;
+
+import net.mehvahdjukaar.polytone.PlatStuff;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.color.block.BlockColor;
+import net.minecraft.client.color.block.BlockColors;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.BlockAndTintGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Public entry point for mods that need block tints in bulk (maps, minimaps...).
+// Walks the batch in runs of the same block so each run only resolves its tint provider once
+public class PolytoneTints {
+
+    private static final Map<Block, BulkTintProvider> EXTERNAL_PROVIDERS = new ConcurrentHashMap<>();
+
+    // lets other mods plug their own bulk provider for their blocks. Has priority over registered block colors
+    public static void registerProvider(Block block, BulkTintProvider provider) {
+        EXTERNAL_PROVIDERS.put(block, provider);
+    }
+
+    public static void unregisterProvider(Block block) {
+        EXTERNAL_PROVIDERS.remove(block);
+    }
+
+    // uses the client level
+    public static void getColors(BlockState[] states, long[] packedPos, int tintIndex, int[] out) {
+        getColors(Minecraft.getInstance().level, states, packedPos, tintIndex, out);
+    }
+
+    public static void getColors(@Nullable BlockAndTintGetter level, BlockState[] states, long[] packedPos,
+                                 int tintIndex, int[] out) {
+        int size = states.length;
+        if (packedPos.length < size || out.length < size) {
+            throw new IllegalArgumentException("Positions and output arrays must be at least as long as the states array");
+        }
+        BlockColors blockColors = Minecraft.getInstance().getBlockColors();
+        int start = 0;
+        while (start < size) {
+            BlockState first = states[start];
+            Block block = first == null ? null : first.getBlock();
+            int end = start + 1;
+            while (end < size && sameBlock(states[end], block)) end++;
+
+            BulkTintProvider provider = block == null ? null : getProvider(blockColors, block);
+            if (provider != null) {
+                provider.getColors(level, states, packedPos, tintIndex, out, start, end);
+            } else {
+                Arrays.fill(out, start, end, -1);
+            }
+            start = end;
+        }
+    }
+
+    private static boolean sameBlock(@Nullable BlockState state, @Nullable Block block) {
+        return state == null ? block == null : state.getBlock() == block;
+    }
+
+    @Nullable
+    private static BulkTintProvider getProvider(BlockColors blockColors, Block block) {
+        BulkTintProvider external = EXTERNAL_PROVIDERS.get(block);
+        if (external != null) return external;
+        BlockColor color = PlatStuff.getBlockColor(blockColors, block);
+        if (color == null) return null;
+        if (color instanceof BulkTintProvider bulk) return bulk;
+        return (level, states, packedPos, tintIndex, out, from, to) -> {
+            BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+            for (int i = from; i < to; i++) {
+                out[i] = color.getColor(states[i], level, pos.set(packedPos[i]), tintIndex);
+            }
+        };
+    }
+}
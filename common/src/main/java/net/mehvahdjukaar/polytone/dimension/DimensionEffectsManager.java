@@ -12,7 +12,10 @@ import net.mehvahdjukaar.polytone.colormap.Colormap;
 import net.mehvahdjukaar.polytone.colormap.ColormapsManager;
 import net.mehvahdjukaar.polytone.utils.ClientFrameTicker;
 import net.mehvahdjukaar.polytone.utils.ColorUtils;
+import net.mehvahdjukaar.polytone.utils.FrameContext;
 import net.mehvahdjukaar.polytone.utils.JsonImgPartialReloader;
+import net.mehvahdjukaar.polytone.utils.PartialReloader;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.color.block.BlockColor;
 import net.minecraft.client.multiplayer.ClientLevel;
@@ -35,6 +38,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -59,6 +63,11 @@ public class DimensionEffectsManager extends JsonImgPartialReloader {
         super("dimension_modifiers", "dimension_effects");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of(Polytone.COLORMAPS);
+    }
+
     @Override
     public void reset() {
         needsDynamicApplication = true;
@@ -89,9 +98,11 @@ public class DimensionEffectsManager extends JsonImgPartialReloader {
             JsonElement json = j.getValue();
             ResourceLocation id = j.getKey();
 
+            ResourceCostProfiler.beginDecode(sourceFile(id));
             DimensionEffectsModifier modifier = DimensionEffectsModifier.CODEC.decode(ops, json)
                     .getOrThrow(errorMsg -> new IllegalStateException("Could not decode Dimension Effects with json id " + id + " - error: " + errorMsg))
                     .getFirst();
+            ResourceCostProfiler.endDecode();
 
             //always have priority
             if (parsedModifiers.containsKey(id)) {
@@ -265,7 +276,9 @@ public class DimensionEffectsManager extends JsonImgPartialReloader {
         BlockContextExpression height = this.cloudFunctions.get(level.dimensionType());
         if (height == null) return null;
         BlockPos pos = ClientFrameTicker.getCameraPos();
-        double v = height.getValue(level, pos, Blocks.AIR.defaultBlockState());
+        double v = height.getValue(level, pos, Blocks.AIR.defaultBlockState(), Double.NaN);
+        // vanilla height once the expression got disabled
+        if (Double.isNaN(v)) return null;
         if (v >= 10000) {
             return Float.NaN;
         }
@@ -292,10 +305,12 @@ public class DimensionEffectsManager extends JsonImgPartialReloader {
         Colormap colormap = this.sunsetColormaps.get(Minecraft.getInstance().level.dimensionType());
         if (colormap == null) return 0;
         float oldAlpha = ARGB.from8BitChannel(ARGB.alpha(old));
-        var color = colormap.sampleColor(null, ClientFrameTicker.getCameraPos(),
-                ClientFrameTicker.getCameraBiome().value(), null);
+        FrameContext frame = ClientFrameTicker.getFrameContext();
+        var cameraBiome = frame.cameraBiome();
+        var color = colormap.sampleColor(null, frame.cameraPos(),
+                cameraBiome == null ? null : cameraBiome.value(), null);
 
-        float deltaTime = ClientFrameTicker.getDeltaTime(); // Get time since last frame
+        float deltaTime = frame.deltaTime(); // Get time since last frame
         float interpolationFactor = deltaTime * 0.1f;
 
 
@@ -11,6 +11,8 @@ import net.mehvahdjukaar.polytone.colormap.ColormapsManager;
 import net.mehvahdjukaar.polytone.utils.ArrayImage;
 import net.mehvahdjukaar.polytone.utils.JsonImgPartialReloader;
 import net.mehvahdjukaar.polytone.utils.LegacyHelper;
+import net.mehvahdjukaar.polytone.utils.PartialReloader;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.color.block.BlockColor;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
@@ -27,6 +29,11 @@ public class FluidPropertiesManager extends JsonImgPartialReloader {
         super( "fluid_modifiers", "fluid_properties");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of(Polytone.COLORMAPS);
+    }
+
     private Map<ResourceLocation, FluidPropertyModifier> extraModifiers;
     private Map<ResourceLocation, ArrayImage> extraImages;
 
@@ -71,9 +78,11 @@ public class FluidPropertiesManager extends JsonImgPartialReloader {
             JsonElement json = j.getValue();
             ResourceLocation id = j.getKey();
 
+            ResourceCostProfiler.beginDecode(sourceFile(id));
             FluidPropertyModifier modifier = FluidPropertyModifier.CODEC.decode(ops, json)
                     .getOrThrow(errorMsg -> new IllegalStateException("Could not decode Fluid Modifier with json id " + id + "\n error: " + errorMsg))
                     .getFirst();
+            ResourceCostProfiler.endDecode();
 
             //always have priority
             if (parsedModifiers.containsKey(id)) {
@@ -5,8 +5,10 @@ import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.JsonOps;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.utils.ActivationFlag;
 import net.mehvahdjukaar.polytone.utils.ModelResHelper;
 import net.mehvahdjukaar.polytone.utils.PartialReloader;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.renderer.block.model.BlockModel;
 import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.core.HolderLookup;
@@ -26,6 +28,9 @@ import java.util.*;
 
 public class CustomItemModelsManager extends PartialReloader<Object> {
 
+    // checked for every item render
+    public static final ActivationFlag ACTIVE = ActivationFlag.create();
+
 
     private final Map<Item, ItemModelOverrideList> itemModels = new Object2ObjectOpenHashMap<>();
     private final Set<ModelResourceLocation> extraModels = new HashSet<>();
@@ -38,6 +43,18 @@ public class CustomItemModelsManager extends PartialReloader<Object> {
 
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        // override expressions grab the noise functions when decoded
+        return List.of(Polytone.NOISES);
+    }
+
+    // the actual models are read by the model manager, not in prepare, so we can't tell if they changed
+    @Override
+    protected boolean supportsIncrementalReload() {
+        return false;
+    }
+
     @Override
     protected Object prepare(ResourceManager resourceManager) {
         return new Object();
@@ -78,9 +95,11 @@ public class CustomItemModelsManager extends PartialReloader<Object> {
             JsonElement json = v.getValue();
             ResourceLocation location = v.getKey();
 
+            ResourceCostProfiler.beginDecode(sourceFile(location));
             StandaloneItemModelOverride modelOverride = StandaloneItemModelOverride.CODEC.decode(JsonOps.INSTANCE, json)
                     .getOrThrow(errorMsg -> new IllegalStateException("Could not decode Custom Item Model with json id " + location + "\n error: " + errorMsg))
                     .getFirst();
+            ResourceCostProfiler.endDecode();
 
             if (modelOverride != null) {
                 // merge
@@ -97,6 +116,7 @@ public class CustomItemModelsManager extends PartialReloader<Object> {
             }
         }
 
+        ACTIVE.set(!this.itemModels.isEmpty());
         Polytone.LOGGER.info("Loaded {} Custom Item Models jsons in {}", jsons.size(), stopWatch);
     }
 
@@ -112,8 +132,23 @@ public class CustomItemModelsManager extends PartialReloader<Object> {
 
     @Override
     protected void applyWithLevel(HolderLookup.Provider access, boolean firstLogin) {
-        for (var list : this.itemModels.values()) {
-            list.populateModels(access);
+        StopWatch total = StopWatch.createStarted();
+        Item slowest = null;
+        long slowestNanos = 0;
+        for (var e : this.itemModels.entrySet()) {
+            long start = System.nanoTime();
+            int size = e.getValue().size();
+            e.getValue().populateModels(access);
+            long took = System.nanoTime() - start;
+            if (took > slowestNanos) {
+                slowestNanos = took;
+                slowest = e.getKey();
+            }
+            Polytone.LOGGER.debug("Built Custom Item Models trie for {} ({} models) in {} us", e.getKey(), size, took / 1000);
+        }
+        if (slowest != null) {
+            Polytone.LOGGER.info("Built Custom Item Models tries for {} items in {}. Slowest was {} ({} ms)",
+                    this.itemModels.size(), total, slowest, slowestNanos / 1_000_000f);
         }
     }
 
@@ -0,0 +1,34 @@
+package net.mehvahdjukaar.polytone.item;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.entity.Entity;
+
+// Serializing an entity is expensive, so we do it at most once per entity per tick and share it between all overrides
+// and all item renders of that tick. Snapshots are treated as read only
+public final class EntityNbtSnapshots {
+
+    private static final int MAX_ENTRIES = 256;
+
+    private static final Reference2ObjectOpenHashMap<Entity, CompoundTag> SNAPSHOTS = new Reference2ObjectOpenHashMap<>();
+    private static long snapshotTick = Long.MIN_VALUE;
+
+    public static synchronized CompoundTag get(Entity entity) {
+        long tick = entity.level().getGameTime();
+        if (tick != snapshotTick || SNAPSHOTS.size() >= MAX_ENTRIES) {
+            SNAPSHOTS.clear();
+            snapshotTick = tick;
+        }
+        CompoundTag tag = SNAPSHOTS.get(entity);
+        if (tag == null) {
+            tag = entity.saveWithoutId(new CompoundTag());
+            SNAPSHOTS.put(entity, tag);
+        }
+        return tag;
+    }
+
+    public static synchronized void clear() {
+        SNAPSHOTS.clear();
+        snapshotTick = Long.MIN_VALUE;
+    }
+}
@@ -6,9 +6,11 @@ import com.mojang.serialization.Dynamic;
 import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.mojang.serialization.codecs.UnboundedMapCodec;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectArrayMap;
 import net.mehvahdjukaar.polytone.colormap.ColormapExpressionProvider;
 import net.mehvahdjukaar.polytone.utils.ClientFrameTicker;
 import net.mehvahdjukaar.polytone.utils.ModelResHelper;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.resources.model.ModelResourceLocation;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderLookup;
@@ -16,11 +18,11 @@ import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.component.DataComponentMap;
 import net.minecraft.core.component.DataComponentType;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.RegistryOps;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.ExtraCodecs;
+import net.minecraft.world.entity.Entity;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.component.CustomData;
 import net.minecraft.world.level.Level;
@@ -28,7 +30,6 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 public class ItemModelOverride {
@@ -37,14 +38,21 @@ public class ItemModelOverride {
     @Nullable
     protected final Integer stackCount;
     @Nullable
-    protected final Pattern pattern;
+    protected final NameMatcher pattern;
     @Nullable
     protected final CompoundTag entityTag;
     @Nullable
+    protected final NbtPathPredicate entityPredicate;
+    @Nullable
     protected final ColormapExpressionProvider expression;
     protected ModelResourceLocation model;
     protected DataComponentMap decodedComponents;
     protected Map<DataComponentType<?>, CompoundTag> nbtMatchers;
+    // nbtMatchers compiled the same way as entity_nbt
+    protected Map<DataComponentType<?>, NbtPathPredicate> nbtPredicates;
+    // file this was decoded from, only known when resource profiling is on
+    @Nullable
+    public final ResourceLocation source = ResourceCostProfiler.decodingSource();
 
     protected static final Codec<Map<ResourceLocation, Float>> ITEM_PREDICATE_CODEC = Codec.unboundedMap(ResourceLocation.CODEC, Codec.FLOAT);
 
@@ -67,10 +75,13 @@ public class ItemModelOverride {
         this.lazyComponent = lazyComponent;
         this.model = model;
         this.stackCount = stackCount.orElse(null);
-        this.pattern = pattern.orElse(null);
+        this.pattern = pattern.map(NameMatcher::new).orElse(null);
         this.entityTag = entityTag.orElse(null);
+        this.entityPredicate = this.entityTag == null ? null : NbtPathPredicate.compile(this.entityTag);
         this.expression = expression.orElse(null);
         this.nbtMatchers = nbtMatchers;
+        this.nbtPredicates = new Reference2ObjectArrayMap<>(nbtMatchers.size());
+        nbtMatchers.forEach((type, tag) -> this.nbtPredicates.put(type, NbtPathPredicate.compile(tag)));
     }
 
     public ItemModelOverride(DataComponentMap map, ModelResourceLocation model) {
@@ -80,7 +91,10 @@ public class ItemModelOverride {
         this.pattern = null;
         this.decodedComponents = map;
         this.entityTag = null;
+        this.entityPredicate = null;
         this.expression = null;
+        this.nbtMatchers = Map.of();
+        this.nbtPredicates = Map.of();
     }
 
 
@@ -109,7 +123,7 @@ public class ItemModelOverride {
 
     @Nullable
     public Pattern namePattern() {
-        return this.pattern;
+        return this.pattern == null ? null : this.pattern.pattern();
     }
 
     @Nullable
@@ -117,44 +131,39 @@ public class ItemModelOverride {
         return this.entityTag;
     }
 
+    @Nullable
+    public ColormapExpressionProvider expression() {
+        return this.expression;
+    }
+
+    public Map<DataComponentType<?>, CompoundTag> nbtMatchers() {
+        return this.nbtMatchers;
+    }
 
-    public boolean matchesPredicate(ItemStack stack, @Nullable Level level, @Nullable Supplier<CompoundTag> entityTagGetter,
+
+    public boolean matchesPredicate(ItemStack stack, @Nullable Level level, @Nullable Entity entity,
                                     @Nullable Component customName) {
         if (this.pattern != null && customName != null) {
-            if (!this.pattern.matcher(customName.getString()).matches()) return false;
+            if (!this.pattern.matches(customName)) return false;
         }
 
-        if (this.entityTag != null && entityTagGetter != null) {
-            CompoundTag tag = entityTagGetter.get();
-            if (!containsTag(tag, this.entityTag)) return false;
+        if (this.entityPredicate != null && entity != null) {
+            if (!this.entityPredicate.test(EntityNbtSnapshots.get(entity))) return false;
         }
         if (this.expression != null) {
             BlockPos pos = ClientFrameTicker.getCameraPos();
             if (this.expression.getValue(null, pos, null, null, stack) == 0) return false;
         }
 
-        for (var m : this.nbtMatchers.entrySet()) {
+        for (var m : this.nbtPredicates.entrySet()) {
             var type = m.getKey();
             var c = stack.get(type);
             if (c instanceof CustomData d) {
-                if (!containsTag(d.getUnsafe(), m.getValue())) return false;
+                if (!m.getValue().test(d.getUnsafe())) return false;
             }
         }
 
         return true;
     }
 
-    private static boolean containsTag(CompoundTag tagToMatch, CompoundTag entityTag) {
-        for (String key : tagToMatch.getAllKeys()) {
-            Tag t = entityTag.get(key);
-            if (t == null) return false;
-            if (t instanceof CompoundTag ct) {
-                CompoundTag compound = tagToMatch.getCompound(key);
-                if (compound.isEmpty()) return false;
-                if (!containsTag(compound, ct)) return false;
-            } else if (!t.equals(entityTag.get(key))) return false;
-        }
-        return true;
-    }
-
 }
@@ -1,9 +1,9 @@
 package net.mehvahdjukaar.polytone.item;
 
-import com.google.common.base.Suppliers;
 import net.mehvahdjukaar.polytone.PlatStuff;
 import net.mehvahdjukaar.polytone.utils.DepthSearchTrie;
 import net.mehvahdjukaar.polytone.utils.FrequencyOrderedCollection;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.core.RegistryAccess;
@@ -11,7 +11,6 @@ import net.minecraft.core.component.DataComponentMap;
 import net.minecraft.core.component.DataComponentType;
 import net.minecraft.core.component.DataComponents;
 import net.minecraft.core.component.TypedDataComponent;
-import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.Entity;
@@ -24,8 +23,9 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.Set;
 
 public class ItemModelOverrideList {
 
@@ -33,6 +33,8 @@ public class ItemModelOverrideList {
     private final List<ItemModelOverride> entries = new ArrayList<>();
 
     private boolean populated = false;
+    @Nullable
+    private ResolvedModelCache cache = null;
 
     // initialize
     public void populateModels(HolderLookup.Provider registryAccess) {
@@ -42,10 +44,29 @@ public class ItemModelOverrideList {
         // key: name, enchant, count
         this.overrides.clear();
         this.overrides.acceptEntries(this.entries, registryAccess);
+        this.overrides.freeze();
+        this.cache = createCache();
         this.populated = true;
         this.entries.clear();
     }
 
+    // only the components overrides can actually look at end up in the cache key
+    private ResolvedModelCache createCache() {
+        Set<DataComponentType<?>> relevant = new LinkedHashSet<>(this.overrides.orderedKeys);
+        boolean perFrame = false;
+        for (var e : this.entries) {
+            if (e.namePattern() != null) relevant.add(DataComponents.CUSTOM_NAME);
+            relevant.addAll(e.nbtMatchers().keySet());
+            if (e.expression() != null) {
+                relevant.add(DataComponents.DAMAGE);
+                relevant.add(DataComponents.MAX_DAMAGE);
+                perFrame = true;
+            }
+            if (e.entityTag() != null) perFrame = true;
+        }
+        return new ResolvedModelCache(new ArrayList<>(relevant), perFrame);
+    }
+
     public void addAll(Collection<ItemModelOverride> itemModelOverrides) {
         this.entries.addAll(itemModelOverrides);
     }
@@ -58,7 +79,7 @@ public class ItemModelOverrideList {
     @Nullable
     public BakedModel getModel(ItemStack stack, @Nullable Level level, @Nullable LivingEntity entity, int seed) {
         if (!populated) return null;
-        return this.overrides.searchModel(stack, level, entity);
+        return this.cache.getOrResolve(stack, entity, () -> this.overrides.searchModel(stack, level, entity));
     }
 
     public int size() {
@@ -82,9 +103,14 @@ public class ItemModelOverrideList {
             }
             var customName = stack.get(DataComponents.CUSTOM_NAME);
             for (var modelOverride : list) {
-                Supplier<CompoundTag> entityTagSupplier = entity == null ? null :
-                        Suppliers.memoize(() -> entity.saveWithoutId(new CompoundTag()));
-                if (modelOverride.matchesPredicate(stack, level, entityTagSupplier, customName)) {
+                Object previous = ResourceCostProfiler.enter(modelOverride.source);
+                boolean matches;
+                try {
+                    matches = modelOverride.matchesPredicate(stack, level, entity, customName);
+                } finally {
+                    ResourceCostProfiler.exit(previous);
+                }
+                if (matches) {
                     return PlatStuff.getBakedModel(modelOverride.model());
                 }
             }
@@ -112,23 +138,48 @@ public class ItemModelOverrideList {
             return null;
         }
 
+        // avoids allocating a TypedDataComponent per lookup. Values of different types are interned separately
+        @Override
+        protected Object getInternedKey(Object key) {
+            if (key instanceof TypedDataComponent<?> t) {
+                return t.value();
+            }
+            return key;
+        }
+
+        @Override
+        protected Object getInternedKeyFromType(Object type, ItemStack stack) {
+            if (type instanceof DataComponentType<?> t) {
+                return stack.get(t);
+            } else if (type == Integer.class) {
+                return stack.getCount();
+            }
+            return null;
+        }
+
         public void acceptEntries(List<ItemModelOverride> entries, HolderLookup.Provider registryAccess) {
             boolean hasCount = false;
+            // decode each entry once, single counting pass then a single sort
+            List<DataComponentMap> components = new ArrayList<>(entries.size());
             FrequencyOrderedCollection<DataComponentType<?>> keyFrequencies = new FrequencyOrderedCollection<>();
             for (ItemModelOverride entry : entries) {
                 if (entry.stackCount() != null) hasCount = true;
-                for (var component : entry.getComponents(registryAccess)) {
+                DataComponentMap map = entry.getComponents(registryAccess);
+                components.add(map);
+                for (var component : map) {
                     keyFrequencies.add(component.type());
                 }
             }
             // assumes keys with more values will be more common. actually inverse to minimize space
             this.orderedKeys.addAll(keyFrequencies.stream().toList());
 
-            for (ItemModelOverride entry : entries) {
-                List<Object> key = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                ItemModelOverride entry = entries.get(i);
+                DataComponentMap map = components.get(i);
+                List<Object> key = new ArrayList<>(this.orderedKeys.size() + 1);
                 if (hasCount) key.add(entry.stackCount());
                 for (DataComponentType<?> type : this.orderedKeys) {
-                    key.add(entry.getComponents(registryAccess).getTyped(type));
+                    key.add(map.getTyped(type));
                 }
                 this.insert(key, entry);
             }
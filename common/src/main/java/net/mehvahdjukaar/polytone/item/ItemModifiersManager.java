@@ -7,6 +7,8 @@ import net.mehvahdjukaar.polytone.Polytone;
 import net.mehvahdjukaar.polytone.colormap.Colormap;
 import net.mehvahdjukaar.polytone.colormap.ColormapsManager;
 import net.mehvahdjukaar.polytone.utils.JsonImgPartialReloader;
+import net.mehvahdjukaar.polytone.utils.PartialReloader;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.ResourceManager;
@@ -14,6 +16,7 @@ import net.minecraft.world.item.Item;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -27,6 +30,11 @@ public class ItemModifiersManager extends JsonImgPartialReloader {
         super("item_modifiers", "item_properties");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of(Polytone.COLORMAPS);
+    }
+
     // early reload to grab the extra models we need to add. Ugly but needed as model manager reloads before all these
     public void earlyProcess(ResourceManager resourceManager) {
         var jsons = getJsonsInDirectories(resourceManager);
@@ -58,9 +66,11 @@ public class ItemModifiersManager extends JsonImgPartialReloader {
             JsonElement json = j.getValue();
             ResourceLocation location = j.getKey();
 
+            ResourceCostProfiler.beginDecode(sourceFile(location));
             ItemModifier modifier = ItemModifier.CODEC.decode(ops, json)
                     .getOrThrow(errorMsg -> new IllegalStateException("Could not decode Item Modifier with json id " + location + "\n error: " + errorMsg))
                     .getFirst();
+            ResourceCostProfiler.endDecode();
 
             parsedModifiers.put(location, modifier);
         }
@@ -0,0 +1,102 @@
+package net.mehvahdjukaar.polytone.item;
+
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.minecraft.locale.Language;
+import net.minecraft.network.chat.Component;
+
+import java.util.regex.Pattern;
+
+// Compiled name_pattern. Literal patterns skip the regex engine entirely and every matcher remembers its result for
+// the last few custom name components it saw. Item custom names are immutable so component identity is a safe key.
+// translatable names flatten differently per language so entries also remember the language they were made with.
+// a new Language instance is injected on every resource reload too
+public final class NameMatcher {
+
+    private static final int SIZE = 32;
+    private static final int FLAT_SIZE = 256;
+
+    // flattening a component allocates a new string each time so that one is shared between all matchers
+    private static final Flat[] FLATTENED = new Flat[FLAT_SIZE];
+
+    private final Pattern pattern;
+    private final Mode mode;
+    private final String literal;
+    private final Result[] results = new Result[SIZE];
+
+    private record Flat(Component component, Language language, String string) {
+    }
+
+    private record Result(Component component, Language language, boolean matches) {
+    }
+
+    private enum Mode {
+        EQUALS, PREFIX, REGEX
+    }
+
+    public NameMatcher(Pattern pattern) {
+        this.pattern = pattern;
+        String s = pattern.pattern();
+        if (pattern.flags() == 0 && isLiteral(s)) {
+            this.mode = Mode.EQUALS;
+            this.literal = s;
+        } else if (pattern.flags() == 0 && s.endsWith(".*") && isLiteral(s.substring(0, s.length() - 2))) {
+            this.mode = Mode.PREFIX;
+            this.literal = s.substring(0, s.length() - 2);
+        } else {
+            this.mode = Mode.REGEX;
+            this.literal = null;
+        }
+    }
+
+    private static boolean isLiteral(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if ("\\^$.|?*+()[]{}".indexOf(s.charAt(i)) != -1) return false;
+        }
+        return true;
+    }
+
+    public Pattern pattern() {
+        return pattern;
+    }
+
+    public boolean matches(Component name) {
+        Language language = Language.getInstance();
+        int index = System.identityHashCode(name) & (SIZE - 1);
+        Result r = results[index];
+        if (r != null && r.component == name && r.language == language) {
+            HotPathMetrics.hit(HotPathMetrics.Cache.ITEM_NAME);
+            return r.matches;
+        }
+        HotPathMetrics.miss(HotPathMetrics.Cache.ITEM_NAME);
+
+        boolean matches = test(getString(name, language));
+        results[index] = new Result(name, language, matches);
+        return matches;
+    }
+
+    private boolean test(String name) {
+        return switch (mode) {
+            case EQUALS -> name.equals(literal);
+            // rare line breaks after the prefix go through the regex, . does not match them
+            case PREFIX -> name.startsWith(literal) && (!hasLineBreak(name, literal.length()) || pattern.matcher(name).matches());
+            case REGEX -> pattern.matcher(name).matches();
+        };
+    }
+
+    private static boolean hasLineBreak(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') return true;
+        }
+        return false;
+    }
+
+    private static String getString(Component component, Language language) {
+        int index = System.identityHashCode(component) & (FLAT_SIZE - 1);
+        Flat f = FLATTENED[index];
+        if (f != null && f.component == component && f.language == language) return f.string;
+        String s = component.getString();
+        FLATTENED[index] = new Flat(component, language, s);
+        return s;
+    }
+}
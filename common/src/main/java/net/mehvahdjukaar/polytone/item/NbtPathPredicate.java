@@ -0,0 +1,61 @@
+package net.mehvahdjukaar.polytone.item;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// An entity_nbt or item_nbt_components predicate flattened into the leaf paths it actually tests.
+// Matching then just walks down those few paths instead of recursing over the whole tag
+public final class NbtPathPredicate {
+
+    private final String[][] paths;
+    // null means the path just has to lead to a compound (empty compounds in the predicate)
+    private final Tag[] expected;
+
+    private NbtPathPredicate(String[][] paths, Tag[] expected) {
+        this.paths = paths;
+        this.expected = expected;
+    }
+
+    public static NbtPathPredicate compile(CompoundTag predicate) {
+        List<String[]> paths = new ArrayList<>();
+        List<Tag> expected = new ArrayList<>();
+        collect(predicate, new ArrayList<>(), paths, expected);
+        return new NbtPathPredicate(paths.toArray(String[][]::new), expected.toArray(Tag[]::new));
+    }
+
+    private static void collect(CompoundTag tag, List<String> prefix, List<String[]> paths, List<Tag> expected) {
+        for (String key : tag.getAllKeys()) {
+            Tag t = tag.get(key);
+            prefix.add(key);
+            if (t instanceof CompoundTag ct && !ct.isEmpty()) {
+                collect(ct, prefix, paths, expected);
+            } else {
+                paths.add(prefix.toArray(String[]::new));
+                expected.add(t instanceof CompoundTag ? null : t);
+            }
+            prefix.remove(prefix.size() - 1);
+        }
+    }
+
+    public boolean test(CompoundTag root) {
+        for (int i = 0; i < paths.length; i++) {
+            String[] path = paths[i];
+            CompoundTag current = root;
+            Tag found = null;
+            for (int j = 0; j < path.length; j++) {
+                found = current.get(path[j]);
+                if (found == null) return false;
+                if (j < path.length - 1) {
+                    if (!(found instanceof CompoundTag ct)) return false;
+                    current = ct;
+                }
+            }
+            Tag e = expected[i];
+            if (e == null ? !(found instanceof CompoundTag) : !e.equals(found)) return false;
+        }
+        return true;
+    }
+}
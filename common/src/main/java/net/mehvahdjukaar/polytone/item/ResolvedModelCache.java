@@ -0,0 +1,87 @@
+package net.mehvahdjukaar.polytone.item;
+
+import net.mehvahdjukaar.polytone.utils.ClientFrameTicker;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.core.component.DataComponentType;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Small direct mapped cache of resolved overrides for a single item.
+// Keyed on count plus the identity of the components the overrides actually look at. Components are immutable so
+// identity is enough, and we never have to hash them. Bounded by design, older entries just get overwritten.
+// Lists with entity or expression predicates also key on the entity and only keep entries for the current frame
+final class ResolvedModelCache {
+
+    private static final int SIZE = 64;
+
+    private final DataComponentType<?>[] types;
+    private final boolean perFrame;
+    private final Entry[] slots = new Entry[SIZE];
+
+    ResolvedModelCache(List<DataComponentType<?>> relevantTypes, boolean perFrame) {
+        this.types = relevantTypes.toArray(DataComponentType[]::new);
+        this.perFrame = perFrame;
+    }
+
+    private record Entry(int count, Object[] values, @Nullable Entity entity, long frame,
+                         @Nullable BakedModel model) {
+    }
+
+    private long currentFrame() {
+        return perFrame ? ClientFrameTicker.getFrameContext().frame() : 0;
+    }
+
+    private int hash(ItemStack stack, @Nullable Entity entity) {
+        int h = stack.getCount();
+        for (var t : types) {
+            h = 31 * h + System.identityHashCode(stack.get(t));
+        }
+        if (perFrame) h = 31 * h + System.identityHashCode(entity);
+        return h ^ (h >>> 16);
+    }
+
+    private boolean matches(@Nullable Entry e, ItemStack stack, @Nullable Entity entity, long frame) {
+        if (e == null || e.frame != frame || e.count != stack.getCount() || (perFrame && e.entity != entity)) {
+            return false;
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (e.values[i] != stack.get(types[i])) return false;
+        }
+        return true;
+    }
+
+    @Nullable
+    BakedModel getOrResolve(ItemStack stack, @Nullable Entity entity, Resolver resolver) {
+        long frame = currentFrame();
+        int index = hash(stack, entity) & (SIZE - 1);
+        // entries are immutable so reading one while another thread replaces it is fine
+        Entry e = slots[index];
+        if (matches(e, stack, entity, frame)) {
+            HotPathMetrics.hit(HotPathMetrics.Cache.ITEM_MODEL);
+            return e.model;
+        }
+        HotPathMetrics.miss(HotPathMetrics.Cache.ITEM_MODEL);
+
+        BakedModel model = resolver.resolve();
+        Object[] values = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            values[i] = stack.get(types[i]);
+        }
+        slots[index] = new Entry(stack.getCount(), values, perFrame ? entity : null, frame, model);
+        return model;
+    }
+
+    void clear() {
+        Arrays.fill(slots, null);
+    }
+
+    interface Resolver {
+        @Nullable
+        BakedModel resolve();
+    }
+}
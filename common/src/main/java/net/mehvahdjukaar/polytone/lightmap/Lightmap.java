@@ -11,6 +11,8 @@ import net.mehvahdjukaar.polytone.Polytone;
 import net.mehvahdjukaar.polytone.utils.ArrayImage;
 import net.mehvahdjukaar.polytone.utils.ColorUtils;
 import net.mehvahdjukaar.polytone.utils.ReferenceOrDirectCodec;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.Options;
 import net.minecraft.client.multiplayer.ClientLevel;
@@ -18,6 +20,7 @@ import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.client.renderer.GameRenderer;
 import net.minecraft.client.renderer.LightTexture;
 import net.minecraft.client.renderer.texture.DynamicTexture;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.Mth;
 import net.minecraft.world.effect.MobEffects;
 import net.minecraft.world.level.dimension.DimensionType;
@@ -59,6 +62,9 @@ public class Lightmap {
     private final float baseLight;
     private final double skyLerp;
     private final double torchLerp;
+    // file this was decoded from, only known when resource profiling is on
+    @Nullable
+    public final ResourceLocation source = ResourceCostProfiler.decodingSource();
     private final ArrayImage[] textures = new ArrayImage[3];
 
     private final float[][] lastSkyLine = new float[16][3];
@@ -261,6 +267,7 @@ public class Lightmap {
         }
 
         if (needsUpload) {
+            HotPathMetrics.count(HotPathMetrics.Hook.LIGHTMAP_UPLOAD);
             resetTextureUploadState();
             RenderSystem.bindTextureForSetup(lightmap.getColorTextureId());
             GlStateManager._texSubImage2D(3553, 0, 0, 0, 16, 16, NativeImage.Format.RGBA.glFormat(), 5121, lightmapPixels);
@@ -4,22 +4,30 @@ package net.mehvahdjukaar.polytone.lightmap;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import net.mehvahdjukaar.polytone.utils.ClientFrameTicker;
-import net.mehvahdjukaar.polytone.utils.ColorUtils;
+import net.mehvahdjukaar.polytone.utils.ExpressionCost;
+import net.mehvahdjukaar.polytone.utils.ExpressionErrorTracker;
+import net.mehvahdjukaar.polytone.utils.ExpressionSpec;
 import net.mehvahdjukaar.polytone.utils.ExpressionUtils;
+import net.mehvahdjukaar.polytone.utils.FrameContext;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
 import net.minecraft.core.BlockPos;
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
 
 record LightmapContextExpression(Expression expression, String unparsed,
-                                 boolean usesBiome) implements ILightmapNumberProvider {
+                                 boolean usesBiome, ExpressionErrorTracker errors) implements ILightmapNumberProvider {
 
-    public static final Codec<LightmapContextExpression> CODEC = Codec.STRING.flatXmap(s -> {
+    public static final Codec<LightmapContextExpression> CODEC = ExpressionSpec.CODEC.flatXmap(spec -> {
+        String s = spec.expression();
         try {
-            return DataResult.success(create(s));
+            var expression = create(s);
+            ExpressionCost.warnIfExpensive(s);
+            expression.errors.setBudget(spec.budgetMicros());
+            return DataResult.success(expression);
         } catch (Exception e) {
             return DataResult.error(() -> "Failed to parse expression:" + e.getMessage());
         }
-    }, exp -> DataResult.success(exp.unparsed));
+    }, exp -> DataResult.success(new ExpressionSpec(exp.unparsed, exp.errors.getBudget())));
 
     private static final String TIME = "TIME";
     private static final String RAIN = "RAIN";
@@ -36,30 +44,34 @@ record LightmapContextExpression(Expression expression, String unparsed,
                 .functions(ExpressionUtils.defFunc())
                 .operator(ExpressionUtils.defOp())
                 .build(), s,
-                s.contains(TEMPERATURE) || s.contains(DOWNFALL));
+                s.contains(TEMPERATURE) || s.contains(DOWNFALL), new ExpressionErrorTracker(s));
     }
 
     @Override
     public double getValue(float time, float rain, float thunder) {
+        // pinned to the default after failing too often
+        if (errors.isDisabled()) return 0;
         expression.setVariable(TIME, time);
         expression.setVariable(RAIN, rain);
         expression.setVariable(THUNDER, thunder);
-        BlockPos pos = ClientFrameTicker.getCameraPos();
+        FrameContext frame = ClientFrameTicker.getFrameContext();
+        BlockPos pos = frame.cameraPos();
         expression.setVariable(POS_X, pos.getX());
         expression.setVariable(POS_Y, pos.getY());
         expression.setVariable(POS_Z, pos.getZ());
         if (usesBiome) {
-            var biome = ClientFrameTicker.getCameraBiome();
-            if (biome == null) {
-                expression.setVariable(TEMPERATURE, 0);
-                expression.setVariable(DOWNFALL, 0);
-            } else {
-                var cs = ColorUtils.getClimateSettings(biome.value());
-                expression.setVariable(TEMPERATURE, cs.temperature);
-                expression.setVariable(DOWNFALL, cs.downfall);
-            }
-
+            // both are 0 when there's no camera biome yet
+            expression.setVariable(TEMPERATURE, frame.temperature());
+            expression.setVariable(DOWNFALL, frame.downfall());
+        }
+        try {
+            long budgetStart = errors.startBudget();
+            double value = HotPathMetrics.evaluate(HotPathMetrics.Hook.LIGHTMAP_EXPRESSION, expression, null);
+            errors.checkBudget(budgetStart);
+            return value;
+        } catch (RuntimeException e) {
+            errors.onError(e);
+            return 0;
         }
-        return expression.evaluate();
     }
 }
@@ -12,6 +12,9 @@ import net.mehvahdjukaar.polytone.utils.ArrayImage;
 import net.mehvahdjukaar.polytone.utils.JsonImgPartialReloader;
 import net.mehvahdjukaar.polytone.utils.LegacyHelper;
 import net.mehvahdjukaar.polytone.utils.MapRegistry;
+import net.mehvahdjukaar.polytone.utils.PartialReloader;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.client.renderer.LightTexture;
@@ -23,6 +26,7 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biome;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class LightmapsManager extends JsonImgPartialReloader {
@@ -40,6 +44,11 @@ public class LightmapsManager extends JsonImgPartialReloader {
         super("lightmaps");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of(Polytone.NOISES);
+    }
+
     @Override
     protected Resources prepare(ResourceManager resourceManager) {
         var jsons = this.getJsonsInDirectories(resourceManager);
@@ -93,9 +102,11 @@ public class LightmapsManager extends JsonImgPartialReloader {
             JsonElement j = jsons.remove(location);
             Lightmap lightmap;
             if (j != null) {
+                ResourceCostProfiler.beginDecode(sourceFile(location));
                 lightmap = Lightmap.DIRECT_CODEC.decode(ops, j)
                         .getOrThrow(errorMsg -> new IllegalStateException("Could not decode Lightmap with json id " + location + "\n error: " + errorMsg))
                         .getFirst();
+                ResourceCostProfiler.endDecode();
 
             } else {
                 //default samplers
@@ -134,8 +145,15 @@ public class LightmapsManager extends JsonImgPartialReloader {
         }
         if (currentLightmap != null) {
             // if(true)return false;
-            currentLightmap.applyToLightTexture(instance, lightmap, minecraft,
-                    level, flicker, partialTicks);
+            long start = HotPathMetrics.start(HotPathMetrics.Hook.LIGHTMAP_RECOMPUTE);
+            Object previous = ResourceCostProfiler.enter(currentLightmap.source);
+            try {
+                currentLightmap.applyToLightTexture(instance, lightmap, minecraft,
+                        level, flicker, partialTicks);
+            } finally {
+                ResourceCostProfiler.exit(previous);
+            }
+            HotPathMetrics.stop(HotPathMetrics.Hook.LIGHTMAP_RECOMPUTE, start);
             return true;
         }
         return false;
@@ -0,0 +1,22 @@
+package net.mehvahdjukaar.polytone.mixins;
+
+import com.llamalad7.mixinextras.injector.ModifyReturnValue;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.minecraft.client.gui.components.DebugScreenOverlay;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+import java.util.List;
+
+@Mixin(DebugScreenOverlay.class)
+public abstract class DebugScreenOverlayMixin {
+
+    @ModifyReturnValue(method = "getSystemInformation", at = @At("RETURN"))
+    private List<String> polytone$addHotPathMetrics(List<String> original) {
+        if (HotPathMetrics.ENABLED) {
+            // vanilla list is mutable
+            original.addAll(HotPathMetrics.getDebugLines());
+        }
+        return original;
+    }
+}
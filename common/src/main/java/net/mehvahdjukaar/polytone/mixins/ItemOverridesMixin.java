@@ -3,6 +3,8 @@ package net.mehvahdjukaar.polytone.mixins;
 import com.llamalad7.mixinextras.sugar.Local;
 import com.llamalad7.mixinextras.sugar.ref.LocalRef;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.item.CustomItemModelsManager;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
 import net.minecraft.client.renderer.entity.ItemRenderer;
 import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.world.entity.LivingEntity;
@@ -21,7 +23,10 @@ public class ItemOverridesMixin {
             shift = At.Shift.BEFORE,
             target = "Lnet/minecraft/client/resources/model/BakedModel;overrides()Lnet/minecraft/client/renderer/block/model/BakedOverrides;"))
     private void resolve(BakedModel bakedModel, ItemStack stack, Level level, LivingEntity entity, int seed, CallbackInfoReturnable<BakedModel> cir, @Local LocalRef<BakedModel> bakedModelLocalRef) {
+        if (!CustomItemModelsManager.ACTIVE.isActive()) return;
+        long start = HotPathMetrics.start(HotPathMetrics.Hook.ITEM_OVERRIDE);
         var newModel = Polytone.ITEM_MODELS.getOverride(stack,  level, entity, seed);
+        HotPathMetrics.stop(HotPathMetrics.Hook.ITEM_OVERRIDE, start);
         if (newModel != null) {
             bakedModelLocalRef.set(newModel);
         }
@@ -0,0 +1,22 @@
+package net.mehvahdjukaar.polytone.mixins;
+
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
+import net.minecraft.client.KeyboardHandler;
+import org.lwjgl.glfw.GLFW;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(KeyboardHandler.class)
+public abstract class KeyboardHandlerMixin {
+
+    // F3+Y dumps the resource cost table. Y isnt used by vanilla
+    @Inject(method = "handleDebugKeys", at = @At("HEAD"), cancellable = true)
+    private void polytone$dumpResourceCosts(int key, CallbackInfoReturnable<Boolean> cir) {
+        if (ResourceCostProfiler.ENABLED && key == GLFW.GLFW_KEY_Y) {
+            ResourceCostProfiler.dump();
+            cir.setReturnValue(true);
+        }
+    }
+}
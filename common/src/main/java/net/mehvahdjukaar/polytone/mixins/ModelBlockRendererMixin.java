@@ -5,6 +5,8 @@ import com.llamalad7.mixinextras.sugar.ref.LocalRef;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.texture.VariantTextureManager;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
 import net.minecraft.client.renderer.block.ModelBlockRenderer;
 import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.core.BlockPos;
@@ -26,7 +28,10 @@ public abstract class ModelBlockRendererMixin {
                                              int lightmap0, int lightmap1, int lightmap2, int lightmap3,
                                              int packedOverlay, CallbackInfo ci,
                                              @Local(argsOnly = true) LocalRef<BakedQuad> mutableQuad) {
+        if (!VariantTextureManager.ACTIVE.isActive() || !Polytone.VARIANT_TEXTURES.hasQuadWork(state)) return;
+        long start = HotPathMetrics.start(HotPathMetrics.Hook.VARIANT_QUAD);
         BakedQuad newQuad = Polytone.VARIANT_TEXTURES.maybeModify(quad, level, state, pos);
+        HotPathMetrics.stop(HotPathMetrics.Hook.VARIANT_QUAD, start);
 
         if (newQuad != null){
             mutableQuad.set(newQuad);
@@ -10,6 +10,7 @@ import net.minecraft.server.packs.resources.ResourceManager;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 import java.util.Map;
@@ -34,4 +35,10 @@ public class ModelManagerMixin {
         }
 
     }
+
+    // atlas is stitched and models are baked here, so we can pre bake variant quads
+    @Inject(method = "apply", at = @At("TAIL"))
+    private void polytone$bakeVariantQuads(CallbackInfo ci) {
+        Polytone.VARIANT_TEXTURES.onModelsBaked();
+    }
 }
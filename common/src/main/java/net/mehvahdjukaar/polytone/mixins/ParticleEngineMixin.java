@@ -3,9 +3,12 @@ package net.mehvahdjukaar.polytone.mixins;
 import com.llamalad7.mixinextras.injector.ModifyReturnValue;
 import com.llamalad7.mixinextras.sugar.Local;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.particle.ParticleBatch;
+import net.mehvahdjukaar.polytone.particle.ParticleModifiersManager;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.client.particle.Particle;
 import net.minecraft.client.particle.ParticleEngine;
+import net.minecraft.core.particles.ParticleGroup;
 import net.minecraft.core.particles.ParticleOptions;
 import net.minecraft.server.packs.resources.PreparableReloadListener;
 import net.minecraft.server.packs.resources.ResourceManager;
@@ -15,8 +18,11 @@ import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
@@ -27,10 +33,15 @@ public abstract class ParticleEngineMixin {
     @Shadow
     protected ClientLevel level;
 
+    @Shadow
+    protected abstract void updateCount(ParticleGroup group, int count);
+
     @ModifyReturnValue(method = "makeParticle", at = @At("RETURN"))
     public @Nullable <T extends ParticleOptions> Particle polytone$applyModifiers(@Nullable Particle original,
                                                                                   @Local(argsOnly = true) T particleData){
-        Polytone.PARTICLE_MODIFIERS.maybeModify( particleData, this.level, original);
+        if (ParticleModifiersManager.ACTIVE.isActive()) {
+            Polytone.PARTICLE_MODIFIERS.maybeModify(particleData, this.level, original);
+        }
         return original;
     }
 
@@ -38,4 +49,19 @@ public abstract class ParticleEngineMixin {
     public void polytone$addPackSpriteSets(PreparableReloadListener.PreparationBarrier preparationBarrier, ResourceManager resourceManager, Executor executor, Executor executor2, CallbackInfoReturnable<CompletableFuture<Void>> cir){
         Polytone.CUSTOM_PARTICLES.addSpriteSets(resourceManager);
     }
+
+    @Inject(method = "tickParticleList", at = @At("TAIL"))
+    public void polytone$flushParticleBatches(Collection<Particle> particles, CallbackInfo ci) {
+        // batched custom particles finish their tick here. vanilla already swept this list so we drop the dead ones
+        if (ParticleBatch.flushPending()) {
+            Iterator<Particle> iterator = particles.iterator();
+            while (iterator.hasNext()) {
+                Particle particle = iterator.next();
+                if (!particle.isAlive()) {
+                    particle.getParticleGroup().ifPresent(group -> this.updateCount(group, -1));
+                    iterator.remove();
+                }
+            }
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package net.mehvahdjukaar.polytone.mixins;
 
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.slotify.GuiModifierManager;
 import net.mehvahdjukaar.polytone.slotify.ScreenModifier;
 import net.mehvahdjukaar.polytone.slotify.SlotifyScreen;
 import net.minecraft.client.gui.GuiGraphics;
@@ -25,7 +26,8 @@ public abstract class ScreenMixin implements SlotifyScreen {
     //we cant access screen title during consturciton so we delay
     @Inject(method = "init(Lnet/minecraft/client/Minecraft;II)V", at = @At("TAIL"))
     private void onInit(CallbackInfo ci) {
-        polytone$modifier = Polytone.SLOTIFY.getGuiModifier((Screen) (Object) this);
+        // still cleared when inactive, the screen might be re-inited after a reload removed its modifier
+        polytone$modifier = GuiModifierManager.ACTIVE.isActive() ? Polytone.SLOTIFY.getGuiModifier((Screen) (Object) this) : null;
     }
 
     @Override
@@ -47,6 +49,7 @@ public abstract class ScreenMixin implements SlotifyScreen {
 
     @Inject(method = "addWidget", at = @At("HEAD"))
     public <T extends GuiEventListener & NarratableEntry> void modifyWidget2(T listener, CallbackInfoReturnable<T> cir) {
+        if (!GuiModifierManager.ACTIVE.isActive()) return;
         //gets it new as it might not have been init yet
         var mod = Polytone.SLOTIFY.getGuiModifier((Screen) (Object) this);
         if (mod != null && listener instanceof AbstractWidget aw) {
@@ -56,6 +59,7 @@ public abstract class ScreenMixin implements SlotifyScreen {
 
     @Inject(method = "addRenderableOnly", at = @At("HEAD"))
     public <T extends Renderable> void modifyRenderable(T listener, CallbackInfoReturnable<T> cir) {
+        if (!GuiModifierManager.ACTIVE.isActive()) return;
         var mod = Polytone.SLOTIFY.getGuiModifier((Screen) (Object) this);
         if (mod != null && listener instanceof AbstractWidget aw) {
             mod.modifyWidgets(aw);
@@ -3,6 +3,7 @@ package net.mehvahdjukaar.polytone.mixins;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.color.ColorManager;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.entity.ExperienceOrbRenderer;
@@ -27,6 +28,7 @@ public class XpOrbMixin {
     @Inject(method = "render(Lnet/minecraft/client/renderer/entity/state/ExperienceOrbRenderState;Lcom/mojang/blaze3d/vertex/PoseStack;Lnet/minecraft/client/renderer/MultiBufferSource;I)V",
             at = @At("HEAD"))
     private void polytone$startRenderOrb(ExperienceOrbRenderState experienceOrbRenderState, PoseStack poseStack, MultiBufferSource multiBufferSource, int i, CallbackInfo ci) {
+        if (!ColorManager.XP_ORB_ACTIVE.isActive()) return;
         polytone$specialColor = Polytone.COLORS.getXpOrbColor(experienceOrbRenderState, Minecraft.getInstance().getDeltaTracker().getGameTimeDeltaPartialTick(false));
     }
 
@@ -38,7 +40,7 @@ public class XpOrbMixin {
 
     @Inject(method = "vertex", at = @At("HEAD"), cancellable = true)
     private static void polytone$changeColor(VertexConsumer consumer, PoseStack.Pose matrix, float x, float y, int red, int green, int blue, float texU, float texV, int packedLight, CallbackInfo ci) {
-        if(polytone$specialColor != null){
+        if (ColorManager.XP_ORB_ACTIVE.isActive() && polytone$specialColor != null) {
             ci.cancel();
             consumer.addVertex(matrix, x, y, 0.0F).setColor(polytone$specialColor[0], polytone$specialColor[1],
                             polytone$specialColor[2], 0.5f)
@@ -58,24 +58,24 @@ public record BlockParticleEmitter(
     @Override
     public void tick(Level level, BlockPos pos, BlockState state) {
 
-        double spawnChance = chance.getValue(level, pos, state);
+        double spawnChance = chance.getValue(level, pos, state, 1);
         if (level.random.nextFloat() < spawnChance && predicate().test(state, level.random)) {
             if (biomes.isPresent()) {
                 var biome = level.getBiome(pos);
                 if (!biomes.get().contains(biome)) return;
             }
-            for (int i = 0; i < count.getValue(level, pos, state); i++) {
+            for (int i = 0; i < count.getValue(level, pos, state, 1); i++) {
                 CustomParticleType.setStateHack(state);
 
                 ParticleOptions po = getParticleOptions(state);
                 if (po == null) return;
                 level.addAlwaysVisibleParticle(po,
-                        pos.getX() + x.getValue(level, pos, state),
-                        pos.getY() + y.getValue(level, pos, state),
-                        pos.getZ() + z.getValue(level, pos, state),
-                        dx.getValue(level, pos, state),
-                        dy.getValue(level, pos, state),
-                        dz.getValue(level, pos, state)
+                        pos.getX() + x.getValue(level, pos, state, 0),
+                        pos.getY() + y.getValue(level, pos, state, 0),
+                        pos.getZ() + z.getValue(level, pos, state, 0),
+                        dx.getValue(level, pos, state, 0),
+                        dy.getValue(level, pos, state, 0),
+                        dz.getValue(level, pos, state, 0)
                 );
             }
         }
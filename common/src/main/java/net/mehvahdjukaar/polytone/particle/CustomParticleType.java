@@ -52,6 +52,9 @@ public class CustomParticleType implements CustomParticleFactory {
     private final @Nullable ModelResourceLocation model;
     private final @Nullable ParticleInitializer initializer;
     private final @Nullable Ticker ticker;
+    private final boolean batchedTicker;
+    // shared by all instances when the ticker runs batched
+    private final @Nullable ParticleBatch batch;
     private final List<ParticleSoundEmitter> sounds;
     protected final List<ParticleParticleEmitter> particles = new ArrayList<>();
     @Nullable
@@ -74,12 +77,14 @@ public class CustomParticleType implements CustomParticleFactory {
                                int light, boolean hasPhysics, boolean killOnContact,
                                LiquidAffinity liquidAffinity, @Nullable IColorGetter colormap,
                                int particleGroupLimit, boolean forceSpawn,
-                               @Nullable ParticleInitializer initializer, @Nullable Ticker ticker,
+                               @Nullable ParticleInitializer initializer, @Nullable Ticker ticker, boolean batchedTicker,
                                @Nullable List<ParticleSoundEmitter> sounds, @Nullable List<Dynamic<?>> particles) {
         this.renderType = renderType;
         this.model = model == null ? null : new ModelResourceLocation(model, "standalone");
         this.initializer = initializer;
         this.ticker = ticker;
+        this.batchedTicker = batchedTicker;
+        this.batch = batchedTicker && ticker != null ? new ParticleBatch(ticker) : null;
         this.sounds = sounds;
         this.lazyParticles = particles;
         this.lightLevel = light;
@@ -109,6 +114,7 @@ public class CustomParticleType implements CustomParticleFactory {
             Codec.BOOL.optionalFieldOf("force_spawn", false).forGetter(c -> c.forceSpawn),
             ParticleInitializer.CODEC.optionalFieldOf("initializer").forGetter(c -> Optional.ofNullable(c.initializer)),
             Ticker.CODEC.optionalFieldOf("ticker").forGetter(c -> Optional.ofNullable(c.ticker)),
+            Codec.BOOL.optionalFieldOf("batched_ticker", false).forGetter(c -> c.batchedTicker),
             ParticleSoundEmitter.CODEC.listOf().optionalFieldOf("sound_emitters", List.of()).forGetter(c -> c.sounds),
             Codec.PASSTHROUGH.listOf().optionalFieldOf("particle_emitters", List.of()).forGetter(c -> c.lazyParticles)
     ).apply(i, CustomParticleType::new));
@@ -118,10 +124,11 @@ public class CustomParticleType implements CustomParticleFactory {
                                int light, boolean hasPhysics, boolean killOnContact,
                                LiquidAffinity liquidAffinity, Optional<IColorGetter> colormap,
                                int limit, boolean forceSpawn, Optional<ParticleInitializer> initializer,
-                               Optional<Ticker> ticker, List<ParticleSoundEmitter> sounds, List<Dynamic<?>> particles) {
+                               Optional<Ticker> ticker, boolean batchedTicker,
+                               List<ParticleSoundEmitter> sounds, List<Dynamic<?>> particles) {
         this(renderType, rotationMode, model.orElse(null), offset,
                 light, hasPhysics, killOnContact, liquidAffinity, colormap.orElse(null), limit, forceSpawn,
-                initializer.orElse(null), ticker.orElse(null), sounds, particles);
+                initializer.orElse(null), ticker.orElse(null), batchedTicker, sounds, particles);
     }
 
     @Override
@@ -160,7 +167,7 @@ public class CustomParticleType implements CustomParticleFactory {
             }
 
             if (this.ticker != null && this.ticker.removeIf != null) {
-                if (this.ticker.removeIf.getValue(newParticle, world) > 0) {
+                if (this.ticker.removeIf.getValue(newParticle, world, 0) > 0) {
                     return null;
                 }
             }
@@ -181,6 +188,7 @@ public class CustomParticleType implements CustomParticleFactory {
         protected final @Nullable BakedModel model;
         protected final RotationMode rotationMode;
         protected final @Nullable Ticker ticker;
+        protected final @Nullable ParticleBatch batch;
         protected final SpriteSet spriteSet;
         protected final LiquidAffinity liquidAffinity;
         protected final @Nullable IColorGetter colormap;
@@ -221,6 +229,7 @@ public class CustomParticleType implements CustomParticleFactory {
             this.model = customType.model == null ? null : PlatStuff.getBakedModel(customType.model);
             this.renderType = customType.renderType;
             this.ticker = customType.ticker;
+            this.batch = customType.batch;
             this.spriteSet = customType.spriteSet;
             ParticleInitializer initializer = customType.initializer;
             BlockPos pos = BlockPos.containing(x, y, z);
@@ -310,9 +319,17 @@ public class CustomParticleType implements CustomParticleFactory {
             super.tick();
 
             if (this.ticker != null) {
+                if (this.batch != null) {
+                    // the rest runs once all particles of this type have moved, see ParticleBatch
+                    if (!this.removed) this.batch.add(this);
+                    return;
+                }
                 this.ticker.tick(this, level);
             }
+            this.afterTicker();
+        }
 
+        protected void afterTicker() {
             if (this.colormap != null) {
                 BlockPos pos = BlockPos.containing(x, y, z);
                 float[] unpack = ColorUtils.unpack(this.colormap.getColor(null, level, pos, 0));
@@ -472,52 +489,70 @@ public class CustomParticleType implements CustomParticleFactory {
         private void tick(CustomParticleType.Instance particle, ClientLevel level) {
             if (this.roll != null) {
                 particle.oRoll = particle.roll;
-                particle.roll = (float) particle.ticker.roll.getValue(particle, level);
+                particle.roll = (float) particle.ticker.roll.getValue(particle, level, particle.roll);
             }
             if (this.size != null) {
                 particle.oQuadSize = particle.quadSize;
-                particle.quadSize = (float) this.size.getValue(particle, level);
+                particle.quadSize = (float) this.size.getValue(particle, level, particle.quadSize);
             }
             if (this.red != null) {
-                particle.rCol = (float) this.red.getValue(particle, level);
+                particle.rCol = (float) this.red.getValue(particle, level, particle.rCol);
             }
             if (this.green != null) {
-                particle.gCol = (float) this.green.getValue(particle, level);
+                particle.gCol = (float) this.green.getValue(particle, level, particle.gCol);
             }
             if (this.blue != null) {
-                particle.bCol = (float) this.blue.getValue(particle, level);
+                particle.bCol = (float) this.blue.getValue(particle, level, particle.bCol);
             }
             if (this.alpha != null) {
-                particle.alpha = (float) this.alpha.getValue(particle, level);
+                particle.alpha = (float) this.alpha.getValue(particle, level, particle.alpha);
             }
             if (this.x != null) {
-                particle.x = this.x.getValue(particle, level);
+                particle.x = this.x.getValue(particle, level, particle.x);
             }
             if (this.y != null) {
-                particle.y = this.y.getValue(particle, level);
+                particle.y = this.y.getValue(particle, level, particle.y);
             }
             if (this.z != null) {
-                particle.z = this.z.getValue(particle, level);
+                particle.z = this.z.getValue(particle, level, particle.z);
             }
             if (this.dx != null) {
-                particle.xd = this.dx.getValue(particle, level);
+                particle.xd = this.dx.getValue(particle, level, particle.xd);
             }
             if (this.dy != null) {
-                particle.yd = this.dy.getValue(particle, level);
+                particle.yd = this.dy.getValue(particle, level, particle.yd);
             }
             if (this.dz != null) {
-                particle.zd = this.dz.getValue(particle, level);
+                particle.zd = this.dz.getValue(particle, level, particle.zd);
             }
             if (this.custom != null) {
-                particle.custom = this.custom.getValue(particle, level);
+                particle.custom = this.custom.getValue(particle, level, particle.custom);
             }
             if (this.removeIf != null) {
-                if (this.removeIf.getValue(particle, level) > 0) {
+                if (this.removeIf.getValue(particle, level, 0) > 0) {
                     particle.remove();
                 }
             }
         }
 
+        // same as tick but one channel at a time for the whole batch. order must match tick
+        void tickBatch(ParticleBatch batch) {
+            if (this.roll != null) batch.evaluate(this.roll, batch.roll, true);
+            if (this.size != null) batch.evaluate(this.size, batch.quadSize, true);
+            if (this.red != null) batch.evaluate(this.red, batch.red, true);
+            if (this.green != null) batch.evaluate(this.green, batch.green, true);
+            if (this.blue != null) batch.evaluate(this.blue, batch.blue, true);
+            if (this.alpha != null) batch.evaluate(this.alpha, batch.alpha, true);
+            if (this.x != null) batch.evaluate(this.x, batch.x, false);
+            if (this.y != null) batch.evaluate(this.y, batch.y, false);
+            if (this.z != null) batch.evaluate(this.z, batch.z, false);
+            if (this.dx != null) batch.evaluate(this.dx, batch.xd, false);
+            if (this.dy != null) batch.evaluate(this.dy, batch.yd, false);
+            if (this.dz != null) batch.evaluate(this.dz, batch.zd, false);
+            if (this.custom != null) batch.evaluate(this.custom, batch.custom, false);
+            if (this.removeIf != null) batch.evaluate(this.removeIf, batch.removeIf, false);
+        }
+
     }
 
     protected enum LiquidAffinity implements StringRepresentable {
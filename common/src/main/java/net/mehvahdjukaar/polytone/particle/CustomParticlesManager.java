@@ -11,6 +11,8 @@ import net.mehvahdjukaar.polytone.PlatStuff;
 import net.mehvahdjukaar.polytone.Polytone;
 import net.mehvahdjukaar.polytone.utils.JsonPartialReloader;
 import net.mehvahdjukaar.polytone.utils.MapRegistry;
+import net.mehvahdjukaar.polytone.utils.PartialReloader;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.particle.ParticleEngine;
 import net.minecraft.client.particle.ParticleProvider;
@@ -38,6 +40,11 @@ public class CustomParticlesManager extends JsonPartialReloader {
         super("custom_particles");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of(Polytone.COLORMAPS);
+    }
+
 
     //just gathers the custom models if any are there
     public void earlyProcess(ResourceManager resourceManager) {
@@ -89,9 +96,11 @@ public class CustomParticlesManager extends JsonPartialReloader {
             try {
                 var json = j.getValue();
                 var id = j.getKey();
+                ResourceCostProfiler.beginDecode(sourceFile(id));
                 CustomParticleFactory factory = CUSTOM_OR_SEMI_CUSTOM_CODEC.decode(ops, json)
                         .getOrThrow(errorMsg -> new IllegalStateException("Could not decode Custom Particle with json id " + id + "\n error: " + errorMsg))
                         .getFirst();
+                ResourceCostProfiler.endDecode();
                 factory.setSpriteSet(Minecraft.getInstance().particleEngine.spriteSets.get(id));
 
                 if (factory instanceof CustomParticleType c) {
@@ -0,0 +1,147 @@
+package net.mehvahdjukaar.polytone.particle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// structure of arrays copy of all the particles of one custom type that ticked in the current particle list.
+// lets the ticker evaluate one channel for every particle before moving to the next one instead of jumping between
+// up to 14 expressions per particle. channels only read their own particle so results are the same as ticking one by one
+public final class ParticleBatch {
+
+    // batches that got particles since the last flush
+    private static final List<ParticleBatch> PENDING = new ArrayList<>();
+
+    private final CustomParticleType.Ticker ticker;
+    private final List<CustomParticleType.Instance> particles = new ArrayList<>();
+
+    int size;
+    double[] x = new double[0];
+    double[] y = new double[0];
+    double[] z = new double[0];
+    double[] xd = new double[0];
+    double[] yd = new double[0];
+    double[] zd = new double[0];
+    double[] red = new double[0];
+    double[] green = new double[0];
+    double[] blue = new double[0];
+    double[] alpha = new double[0];
+    double[] quadSize = new double[0];
+    double[] roll = new double[0];
+    double[] custom = new double[0];
+    double[] removeIf = new double[0];
+    int[] age = new int[0];
+    int[] lifetime = new int[0];
+
+    ParticleBatch(CustomParticleType.Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    void add(CustomParticleType.Instance particle) {
+        if (particles.isEmpty()) PENDING.add(this);
+        particles.add(particle);
+    }
+
+    // runs the ticker and the rest of the tick for everything added since last time.
+    // returns true if some particles were ticked, as they might have been removed
+    public static boolean flushPending() {
+        if (PENDING.isEmpty()) return false;
+        try {
+            for (ParticleBatch batch : PENDING) {
+                batch.flush();
+            }
+        } finally {
+            for (ParticleBatch batch : PENDING) {
+                batch.particles.clear();
+            }
+            PENDING.clear();
+        }
+        return true;
+    }
+
+    private void flush() {
+        gather();
+        ticker.tickBatch(this);
+        scatter();
+        for (var p : particles) {
+            p.afterTicker();
+        }
+    }
+
+    // results of float fields are rounded like the per particle path does, so later channels see the same values
+    void evaluate(ParticleContextExpression expression, double[] values, boolean isFloat) {
+        expression.getValues(this, values);
+        if (isFloat) {
+            for (int i = 0; i < size; i++) {
+                values[i] = (float) values[i];
+            }
+        }
+    }
+
+    private void gather() {
+        int n = particles.size();
+        if (x.length < n) grow(Math.max(n, x.length * 2));
+        this.size = n;
+        for (int i = 0; i < n; i++) {
+            var p = particles.get(i);
+            x[i] = p.x;
+            y[i] = p.y;
+            z[i] = p.z;
+            xd[i] = p.xd;
+            yd[i] = p.yd;
+            zd[i] = p.zd;
+            red[i] = p.rCol;
+            green[i] = p.gCol;
+            blue[i] = p.bCol;
+            alpha[i] = p.alpha;
+            quadSize[i] = p.quadSize;
+            roll[i] = p.roll;
+            custom[i] = p.custom;
+            removeIf[i] = 0;
+            age[i] = p.age;
+            lifetime[i] = p.getLifetime();
+        }
+    }
+
+    private void scatter() {
+        boolean hasRoll = ticker.roll() != null;
+        boolean hasSize = ticker.size() != null;
+        for (int i = 0; i < size; i++) {
+            var p = particles.get(i);
+            if (hasRoll) p.oRoll = p.roll;
+            if (hasSize) p.oQuadSize = p.quadSize;
+            p.x = x[i];
+            p.y = y[i];
+            p.z = z[i];
+            p.xd = xd[i];
+            p.yd = yd[i];
+            p.zd = zd[i];
+            p.rCol = (float) red[i];
+            p.gCol = (float) green[i];
+            p.bCol = (float) blue[i];
+            p.alpha = (float) alpha[i];
+            p.quadSize = (float) quadSize[i];
+            p.roll = (float) roll[i];
+            p.custom = custom[i];
+            if (removeIf[i] > 0) p.remove();
+        }
+    }
+
+    private void grow(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        z = new double[capacity];
+        xd = new double[capacity];
+        yd = new double[capacity];
+        zd = new double[capacity];
+        red = new double[capacity];
+        green = new double[capacity];
+        blue = new double[capacity];
+        alpha = new double[capacity];
+        quadSize = new double[capacity];
+        roll = new double[capacity];
+        custom = new double[capacity];
+        removeIf = new double[capacity];
+        age = new int[capacity];
+        lifetime = new int[capacity];
+    }
+}
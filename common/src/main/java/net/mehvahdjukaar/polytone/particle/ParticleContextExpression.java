@@ -4,19 +4,30 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import net.mehvahdjukaar.polytone.utils.ClientFrameTicker;
 import net.mehvahdjukaar.polytone.utils.ColorUtils;
+import net.mehvahdjukaar.polytone.utils.ExpressionCost;
+import net.mehvahdjukaar.polytone.utils.ExpressionErrorTracker;
+import net.mehvahdjukaar.polytone.utils.ExpressionSpec;
 import net.mehvahdjukaar.polytone.utils.ExpressionUtils;
-import net.minecraft.client.Minecraft;
+import net.mehvahdjukaar.polytone.utils.FrameContext;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.particle.Particle;
 import net.minecraft.client.particle.ParticleEngine;
 import net.minecraft.client.particle.SingleQuadParticle;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.Level;
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
+import org.jetbrains.annotations.Nullable;
 
 public class ParticleContextExpression {
     private final Expression expression;
     private final String unparsed;
+    // file this was decoded from, only known when resource profiling is on
+    @Nullable
+    private final ResourceLocation source = ResourceCostProfiler.decodingSource();
+    private final ExpressionErrorTracker errors;
 
     private static final String COLOR = "COLOR";
     private static final String SPEED = "SPEED";
@@ -48,14 +59,18 @@ public class ParticleContextExpression {
     private static final String PLAYER_Y = "PLAYER_Y";
     private static final String PLAYER_Z = "PLAYER_Z";
 
-    public static final Codec<ParticleContextExpression> CODEC = Codec.STRING.flatXmap(s -> {
+    public static final Codec<ParticleContextExpression> CODEC = ExpressionSpec.CODEC.flatXmap(spec -> {
+        String s = spec.expression();
         try {
             Expression compiled = createExpression(s);
-            return DataResult.success(new ParticleContextExpression(compiled, s));
+            ExpressionCost.warnIfExpensive(s);
+            var expression = new ParticleContextExpression(compiled, s);
+            expression.errors.setBudget(spec.budgetMicros());
+            return DataResult.success(expression);
         } catch (Exception e) {
             return DataResult.error(() -> "Failed to parse expression:" + e.getMessage());
         }
-    }, javaxExpression -> DataResult.success(javaxExpression.unparsed));
+    }, javaxExpression -> DataResult.success(new ExpressionSpec(javaxExpression.unparsed, javaxExpression.errors.getBudget())));
 
     private final boolean hasTime;
     private final boolean hasRain;
@@ -67,7 +82,21 @@ public class ParticleContextExpression {
     private final boolean hasDownfall;
     private final boolean hasDistance;
     private final boolean hasPlayer;
+    // per particle ones. contains() can over match (X in DX) which just sets a few extra
+    private final boolean hasLife;
+    private final boolean hasColor;
+    private final boolean hasChannels;
+    private final boolean hasSpeed;
+    private final boolean hasAlpha;
+    private final boolean hasSize;
+    private final boolean hasMotion;
+    private final boolean hasPosition;
+    private final boolean hasAge;
+    private final boolean hasRoll;
 
+    // frame variables only change once per frame so they are not set again for every particle
+    @Nullable
+    private FrameContext lastFrame;
 
     public ParticleContextExpression(String expression) {
         this(createExpression(expression), expression);
@@ -76,6 +105,7 @@ public class ParticleContextExpression {
     public ParticleContextExpression(Expression expression, String unparsed) {
         this.expression = expression;
         this.unparsed = unparsed;
+        this.errors = new ExpressionErrorTracker(unparsed);
 
         this.hasTime = unparsed.contains(TIME);
         this.hasRain = unparsed.contains(RAIN);
@@ -87,6 +117,16 @@ public class ParticleContextExpression {
         this.hasDownfall = unparsed.contains(DOWNFALL);
         this.hasDistance = unparsed.contains(DISTANCE_SQUARED);
         this.hasPlayer = unparsed.contains(PLAYER_X) || unparsed.contains(PLAYER_Y) || unparsed.contains(PLAYER_Z);
+        this.hasLife = unparsed.contains(LIFE);
+        this.hasColor = unparsed.contains(COLOR);
+        this.hasChannels = unparsed.contains(RED) || unparsed.contains(GREEN) || unparsed.contains(BLUE);
+        this.hasSpeed = unparsed.contains(SPEED);
+        this.hasAlpha = unparsed.contains(ALPHA);
+        this.hasSize = unparsed.contains(SIZE);
+        this.hasMotion = unparsed.contains(DX) || unparsed.contains(DY) || unparsed.contains(DZ);
+        this.hasPosition = unparsed.contains(X) || unparsed.contains(Y) || unparsed.contains(Z);
+        this.hasAge = unparsed.contains(AGE);
+        this.hasRoll = unparsed.contains(ROLL);
     }
 
     public static ParticleContextExpression parse(String s) {
@@ -104,52 +144,113 @@ public class ParticleContextExpression {
     }
 
 
-    public double getValue(Particle particle, Level level) {
-        expression.setVariable(LIFE, particle.getLifetime());
-
-        int pack = ColorUtils.pack(particle.rCol, particle.gCol, particle.bCol);
-        expression.setVariable(COLOR, pack);
-
-        expression.setVariable(RED, particle.rCol);
-        expression.setVariable(GREEN, particle.gCol);
-        expression.setVariable(BLUE, particle.bCol);
-        expression.setVariable(SPEED, Mth.length(particle.xd, particle.yd, particle.zd));
-        expression.setVariable(ALPHA, particle.alpha);
-        expression.setVariable(SIZE, ((SingleQuadParticle) particle).quadSize);
-        expression.setVariable(DX, particle.xd);
-        expression.setVariable(DY, particle.yd);
-        expression.setVariable(DZ, particle.zd);
-        expression.setVariable(X, particle.x);
-        expression.setVariable(Y, particle.y);
-        expression.setVariable(Z, particle.z);
-        expression.setVariable(AGE, particle.age);
-        expression.setVariable(ROLL, particle.roll);
+    // fallback is what the caller would use without this expression, returned once it gets disabled
+    public double getValue(Particle particle, Level level, double fallback) {
+        // exp4j only complains about variables that are actually used, so anything else is skipped
+        if (hasLife) expression.setVariable(LIFE, particle.getLifetime());
+        if (hasColor) expression.setVariable(COLOR, ColorUtils.pack(particle.rCol, particle.gCol, particle.bCol));
+        if (hasChannels) {
+            expression.setVariable(RED, particle.rCol);
+            expression.setVariable(GREEN, particle.gCol);
+            expression.setVariable(BLUE, particle.bCol);
+        }
+        if (hasSpeed) expression.setVariable(SPEED, Mth.length(particle.xd, particle.yd, particle.zd));
+        if (hasAlpha) expression.setVariable(ALPHA, particle.alpha);
+        if (hasSize) expression.setVariable(SIZE, ((SingleQuadParticle) particle).quadSize);
+        if (hasMotion) {
+            expression.setVariable(DX, particle.xd);
+            expression.setVariable(DY, particle.yd);
+            expression.setVariable(DZ, particle.zd);
+        }
+        if (hasPosition) {
+            expression.setVariable(X, particle.x);
+            expression.setVariable(Y, particle.y);
+            expression.setVariable(Z, particle.z);
+        }
+        if (hasAge) expression.setVariable(AGE, particle.age);
+        if (hasRoll) expression.setVariable(ROLL, particle.roll);
         if (hasCustom && particle instanceof CustomParticleType.Instance i)
             expression.setVariable(CUSTOM, i.getCustom());
 
-        if (hasTime) expression.setVariable(TIME, ClientFrameTicker.getGameTime());
-        if (hasRain) expression.setVariable(RAIN, ClientFrameTicker.getRainAndThunder());
-        if (hasDayTime) expression.setVariable(DAY_TIME, ClientFrameTicker.getDayTime());
-        if (hasSkyLight) expression.setVariable(SKY_LIGHT, ClientFrameTicker.getSkyLight());
-        if (hasBlockLight) expression.setVariable(BLOCK_LIGHT, ClientFrameTicker.getBlockLight());
-        if (hasTemperature) expression.setVariable(TEMPERATURE, ClientFrameTicker.getTemperature());
-        if (hasDownfall) expression.setVariable(DOWNFALL, ClientFrameTicker.getDownfall());
+        FrameContext frame = ClientFrameTicker.getFrameContext();
+        setFrameVariables(frame);
         if (hasDistance) {
-            var e = Minecraft.getInstance().getCameraEntity();
-            double x = particle.x - e.getX();
-            double y = particle.y - e.getY();
-            double z = particle.z - e.getZ();
-            expression.setVariable(DISTANCE_SQUARED, x * x + y * y + z * z);
-        }
-        if (hasPlayer) {
-            var e = Minecraft.getInstance().getCameraEntity();
-            expression.setVariable(PLAYER_X, e.getX());
-            expression.setVariable(PLAYER_Y, e.getY());
-            expression.setVariable(PLAYER_Z, e.getZ());
+            expression.setVariable(DISTANCE_SQUARED, frame.distanceSqrToCameraEntity(particle.x, particle.y, particle.z));
         }
 
         ExpressionUtils.randomizeRandom();
-        return expression.evaluate();
+        return evaluate(fallback);
+    }
+
+    // same as getValue for every particle of the batch. values holds each particle's fallback and gets the results
+    void getValues(ParticleBatch batch, double[] values) {
+        if (errors.isDisabled()) return;
+        FrameContext frame = ClientFrameTicker.getFrameContext();
+        setFrameVariables(frame);
+        for (int i = 0; i < batch.size; i++) {
+            if (hasLife) expression.setVariable(LIFE, batch.lifetime[i]);
+            if (hasColor) {
+                expression.setVariable(COLOR, ColorUtils.pack((float) batch.red[i], (float) batch.green[i], (float) batch.blue[i]));
+            }
+            if (hasChannels) {
+                expression.setVariable(RED, batch.red[i]);
+                expression.setVariable(GREEN, batch.green[i]);
+                expression.setVariable(BLUE, batch.blue[i]);
+            }
+            if (hasSpeed) expression.setVariable(SPEED, Mth.length(batch.xd[i], batch.yd[i], batch.zd[i]));
+            if (hasAlpha) expression.setVariable(ALPHA, batch.alpha[i]);
+            if (hasSize) expression.setVariable(SIZE, batch.quadSize[i]);
+            if (hasMotion) {
+                expression.setVariable(DX, batch.xd[i]);
+                expression.setVariable(DY, batch.yd[i]);
+                expression.setVariable(DZ, batch.zd[i]);
+            }
+            if (hasPosition) {
+                expression.setVariable(X, batch.x[i]);
+                expression.setVariable(Y, batch.y[i]);
+                expression.setVariable(Z, batch.z[i]);
+            }
+            if (hasAge) expression.setVariable(AGE, batch.age[i]);
+            if (hasRoll) expression.setVariable(ROLL, batch.roll[i]);
+            if (hasCustom) expression.setVariable(CUSTOM, batch.custom[i]);
+            if (hasDistance) {
+                expression.setVariable(DISTANCE_SQUARED, frame.distanceSqrToCameraEntity(batch.x[i], batch.y[i], batch.z[i]));
+            }
+            ExpressionUtils.randomizeRandom();
+            values[i] = evaluate(values[i]);
+        }
+    }
+
+    private void setFrameVariables(FrameContext frame) {
+        if (frame != lastFrame) {
+            lastFrame = frame;
+            if (hasTime) expression.setVariable(TIME, frame.gameTime());
+            if (hasRain) expression.setVariable(RAIN, frame.rainAndThunder());
+            if (hasDayTime) expression.setVariable(DAY_TIME, frame.dayTime());
+            if (hasSkyLight) expression.setVariable(SKY_LIGHT, frame.skyLight());
+            if (hasBlockLight) expression.setVariable(BLOCK_LIGHT, frame.blockLight());
+            if (hasTemperature) expression.setVariable(TEMPERATURE, frame.temperature());
+            if (hasDownfall) expression.setVariable(DOWNFALL, frame.downfall());
+            if (hasPlayer) {
+                expression.setVariable(PLAYER_X, frame.cameraEntityX());
+                expression.setVariable(PLAYER_Y, frame.cameraEntityY());
+                expression.setVariable(PLAYER_Z, frame.cameraEntityZ());
+            }
+        }
+    }
+
+    private double evaluate(double fallback) {
+        // pinned to the caller's default after failing too often
+        if (errors.isDisabled()) return fallback;
+        try {
+            long budgetStart = errors.startBudget();
+            double value = HotPathMetrics.evaluate(HotPathMetrics.Hook.PARTICLE_EXPRESSION, expression, source);
+            errors.checkBudget(budgetStart);
+            return value;
+        } catch (RuntimeException e) {
+            errors.onError(e);
+            return fallback;
+        }
     }
 
     public static final ParticleContextExpression ZERO = new ParticleContextExpression("0");
@@ -52,35 +52,35 @@ public record ParticleInitializer(@Nullable BlockContextExpression size,
 
     public void initialize(SingleQuadParticle particle, ClientLevel level, BlockState state, BlockPos pos) {
         if (this.roll != null) {
-            particle.roll = (float) this.roll.getValue(level, pos, state);
+            particle.roll = (float) this.roll.getValue(level, pos, state, particle.roll);
         }
         if (this.size != null) {
-            particle.quadSize = ((float) this.size.getValue(level, pos, state));
+            particle.quadSize = ((float) this.size.getValue(level, pos, state, particle.quadSize));
         }
         if (this.red != null) {
-            particle.rCol = (float) this.red.getValue(level, pos, state);
+            particle.rCol = (float) this.red.getValue(level, pos, state, particle.rCol);
         }
         if (this.green != null) {
-            particle.gCol = (float) this.green.getValue(level, pos, state);
+            particle.gCol = (float) this.green.getValue(level, pos, state, particle.gCol);
         }
         if (this.blue != null) {
-            particle.bCol = (float) this.blue.getValue(level, pos, state);
+            particle.bCol = (float) this.blue.getValue(level, pos, state, particle.bCol);
         }
         if (this.alpha != null) {
-            particle.alpha = (float) this.alpha.getValue(level, pos, state);
+            particle.alpha = (float) this.alpha.getValue(level, pos, state, particle.alpha);
         }
         if (this.lifetime != null) {
-            particle.setLifetime((int) Math.max(1, this.lifetime.getValue(level, pos, state)));
+            particle.setLifetime((int) Math.max(1, this.lifetime.getValue(level, pos, state, particle.getLifetime())));
         }
         if (this.friction != null) {
-            particle.friction = (float) this.friction.getValue(level, pos, state);
+            particle.friction = (float) this.friction.getValue(level, pos, state, particle.friction);
         }
         if (this.custom != null && particle instanceof CustomParticleType.Instance ci) {
-            ci.custom = this.custom.getValue(level, pos, state);
+            ci.custom = this.custom.getValue(level, pos, state, ci.custom);
         }
         if (this.hitboxSize != null) {
 
-            float hitbox = (float) this.hitboxSize.getValue(level, pos, state);
+            float hitbox = (float) this.hitboxSize.getValue(level, pos, state, (float) particle.getBoundingBox().getXsize());
             ((ParticleAccessor) particle).invokeSetSize(hitbox, hitbox);
         }
     }
@@ -6,6 +6,7 @@ import net.mehvahdjukaar.polytone.colormap.Colormap;
 import net.mehvahdjukaar.polytone.colormap.IColorGetter;
 import net.mehvahdjukaar.polytone.utils.ColorUtils;
 import net.mehvahdjukaar.polytone.utils.ITargetProvider;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.gui.screens.TitleScreen;
 import net.minecraft.client.particle.Particle;
 import net.minecraft.core.BlockPos;
@@ -44,6 +45,9 @@ public class ParticleModifier implements ITargetProvider {
 
     @Nullable
     private final Filter filter;
+    // file this was decoded from, only known when resource profiling is on
+    @Nullable
+    public final ResourceLocation source = ResourceCostProfiler.decodingSource();
     @Nullable
     public final IColorGetter colormap;
     @Nullable
@@ -106,7 +110,8 @@ public class ParticleModifier implements ITargetProvider {
             if (!filter.test(options)) return;
         }
         if (colorGetter != null) {
-            float[] unpack = ColorUtils.unpack((int) colorGetter.getValue(particle, level));
+            float[] unpack = ColorUtils.unpack((int) colorGetter.getValue(particle, level,
+                    ColorUtils.pack(particle.rCol, particle.gCol, particle.bCol)));
             particle.setColor(unpack[0], unpack[1], unpack[2]);
         }
         if (colormap != null) {
@@ -118,28 +123,28 @@ public class ParticleModifier implements ITargetProvider {
             particle.setColor(unpack[0], unpack[1], unpack[2]);
         }
         if (lifeGetter != null) {
-            particle.setLifetime((int) lifeGetter.getValue(particle, level));
+            particle.setLifetime((int) lifeGetter.getValue(particle, level, particle.getLifetime()));
         }
         if (sizeGetter != null) {
-            particle.scale((float) sizeGetter.getValue(particle, level));
+            particle.scale((float) sizeGetter.getValue(particle, level, 1));
         }
         if (redGetter != null) {
-            particle.rCol = (float) redGetter.getValue(particle, level);
+            particle.rCol = (float) redGetter.getValue(particle, level, particle.rCol);
         }
         if (greenGetter != null) {
-            particle.gCol = (float) greenGetter.getValue(particle, level);
+            particle.gCol = (float) greenGetter.getValue(particle, level, particle.gCol);
         }
         if (blueGetter != null) {
-            particle.bCol = (float) blueGetter.getValue(particle, level);
+            particle.bCol = (float) blueGetter.getValue(particle, level, particle.bCol);
         }
         if (speedGetter != null) {
-            double speed = speedGetter.getValue(particle, level);
+            double speed = speedGetter.getValue(particle, level, 1);
             particle.xd *= speed;
             particle.yd *= speed;
             particle.zd *= speed;
         }
         if (alphaGetter != null) {
-            particle.alpha = (float) alphaGetter.getValue(particle, level);
+            particle.alpha = (float) alphaGetter.getValue(particle, level, particle.alpha);
         }
     }
 
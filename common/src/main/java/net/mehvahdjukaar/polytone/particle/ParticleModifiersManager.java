@@ -5,7 +5,12 @@ import com.google.common.collect.Multimap;
 import com.google.gson.JsonElement;
 import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.JsonOps;
+import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.utils.ActivationFlag;
 import net.mehvahdjukaar.polytone.utils.JsonPartialReloader;
+import net.mehvahdjukaar.polytone.utils.PartialReloader;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
 import net.minecraft.client.particle.DripParticle;
 import net.minecraft.client.particle.LavaParticle;
 import net.minecraft.client.particle.Particle;
@@ -15,21 +20,38 @@ import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.Level;
 
+import java.util.List;
 import java.util.Map;
 
 public class ParticleModifiersManager extends JsonPartialReloader {
 
+    // checked for every spawned particle
+    public static final ActivationFlag ACTIVE = ActivationFlag.create();
+
     private final Multimap<ParticleType<?>, ParticleModifier> particleModifiers = HashMultimap.create();
 
     public ParticleModifiersManager() {
         super("particle_modifiers");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of(Polytone.COLORMAPS);
+    }
+
     public void maybeModify(ParticleOptions options, Level level, Particle particle) {
         var mod = particleModifiers.get(options.getType());
+        if (mod.isEmpty()) return;
+        long start = HotPathMetrics.start(HotPathMetrics.Hook.PARTICLE_MODIFIER);
         for (var modifier : mod) {
-            modifier.modify(particle, level, options);
+            Object previous = ResourceCostProfiler.enter(modifier.source);
+            try {
+                modifier.modify(particle, level, options);
+            } finally {
+                ResourceCostProfiler.exit(previous);
+            }
         }
+        HotPathMetrics.stop(HotPathMetrics.Hook.PARTICLE_MODIFIER, start);
     }
 
     @Override
@@ -38,11 +60,14 @@ public class ParticleModifiersManager extends JsonPartialReloader {
         for (var j : jsons.entrySet()) {
             var json = j.getValue();
             var id = j.getKey();
+            ResourceCostProfiler.beginDecode(sourceFile(id));
             ParticleModifier modifier = ParticleModifier.CODEC.decode(ops, json)
                     .getOrThrow(errorMsg -> new IllegalStateException("Could not decode Particle Modifier with json id " + id + "\n error: " + errorMsg))
                     .getFirst();
+            ResourceCostProfiler.endDecode();
             addModifier(id, modifier);
         }
+        ACTIVE.set(!particleModifiers.isEmpty());
 
         //TODO: add inline colormap support
         //does not support inline colormaps yet
@@ -59,10 +84,14 @@ public class ParticleModifiersManager extends JsonPartialReloader {
     @Override
     protected void reset() {
         particleModifiers.clear();
+        ACTIVE.set(false);
     }
 
     public void addCustomParticleColor(ResourceLocation id, String color) {
         var opt = BuiltInRegistries.PARTICLE_TYPE.getOptional(id);
-        opt.ifPresent(t -> particleModifiers.put(t, ParticleModifier.ofColor(color)));
+        opt.ifPresent(t -> {
+            particleModifiers.put(t, ParticleModifier.ofColor(color));
+            ACTIVE.set(true);
+        });
     }
 }
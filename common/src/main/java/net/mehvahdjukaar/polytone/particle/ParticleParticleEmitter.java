@@ -48,21 +48,21 @@ public record ParticleParticleEmitter(
 
     @Override
     public void tick(Particle particle, Level level) {
-        double spawnChance = chance.getValue(particle, level);
+        double spawnChance = chance.getValue(particle, level, 1);
         if (level.random.nextFloat() < spawnChance) {
             if (biomes.isPresent()) {
                 var biome = level.getBiome(BlockPos.containing(particle.x, particle.y, particle.z));
                 if (!biomes.get().contains(biome)) return;
             }
-            for (int i = 0; i < count.getValue(particle, level); i++) {
+            for (int i = 0; i < count.getValue(particle, level, 1); i++) {
 
                 level.addParticle(particleType,
-                        particle.x + x.getValue(particle, level),
-                        particle.y + y.getValue(particle, level),
-                        particle.z + z.getValue(particle, level),
-                        dx.getValue(particle, level),
-                        dy.getValue(particle, level),
-                        dz.getValue(particle, level)
+                        particle.x + x.getValue(particle, level, 0),
+                        particle.y + y.getValue(particle, level, 0),
+                        particle.z + z.getValue(particle, level, 0),
+                        dx.getValue(particle, level, 0),
+                        dy.getValue(particle, level, 0),
+                        dz.getValue(particle, level, 0)
                 );
             }
         }
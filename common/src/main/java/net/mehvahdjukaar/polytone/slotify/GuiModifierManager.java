@@ -5,6 +5,7 @@ import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.JsonOps;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.utils.ActivationFlag;
 import net.mehvahdjukaar.polytone.utils.JsonPartialReloader;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.screens.Screen;
@@ -28,6 +29,9 @@ import java.util.*;
 
 public class GuiModifierManager extends JsonPartialReloader {
 
+    // checked for every screen init and widget
+    public static final ActivationFlag ACTIVE = ActivationFlag.create();
+
     //slot modifiers
     private final Map<MenuType<?>, Int2ObjectArrayMap<SlotModifier>> slotsByMenuId = new IdentityHashMap<>();
     private final Map<Class<?>, Int2ObjectArrayMap<SlotModifier>> slotsByClass = new IdentityHashMap<>();
@@ -53,6 +57,7 @@ public class GuiModifierManager extends JsonPartialReloader {
         byMenuId.clear();
         byClass.clear();
         byTitle.clear();
+        ACTIVE.set(false);
     }
 
     @Override
@@ -119,6 +124,7 @@ public class GuiModifierManager extends JsonPartialReloader {
             }
 
         }
+        ACTIVE.set(!byMenuId.isEmpty() || !byClass.isEmpty() || !byTitle.isEmpty());
         if(!slotsByMenuId.isEmpty() || !slotsByClass.isEmpty() || !slotsByTitle.isEmpty()) {
             Polytone.LOGGER.info("Loaded GUI modifiers for: {} {} {} {}", slotsByMenuId.keySet(), slotsByClass.keySet(), byMenuId.keySet(), byClass.keySet());
         }
@@ -52,7 +52,7 @@ public record BlockSoundEmitter(
 
     @Override
     public void tick(Level level, BlockPos pos, BlockState state) {
-        double spawnChance = chance.getValue(level, pos, state);
+        double spawnChance = chance.getValue(level, pos, state, 1);
         if (level.random.nextFloat() < spawnChance) {
             if (biomes.isPresent()) {
                 var biome = level.getBiome(pos);
@@ -60,12 +60,12 @@ public record BlockSoundEmitter(
             }
 
             Vec3 vec = pos.getCenter().add(
-                    x.getValue(level, pos, state),
-                    y.getValue(level, pos, state),
-                    z.getValue(level, pos, state));
+                    x.getValue(level, pos, state, 0),
+                    y.getValue(level, pos, state, 0),
+                    z.getValue(level, pos, state, 0));
 
-            float v = (float) volume.getValue(level, pos, state);
-            float p = (float) pitch.getValue(level, pos, state);
+            float v = (float) volume.getValue(level, pos, state, 0);
+            float p = (float) pitch.getValue(level, pos, state, 0);
 
             level.playLocalSound( vec.x, vec.y, vec.z,
                     sound, category, v, p, false);
@@ -51,7 +51,7 @@ public record ParticleSoundEmitter(
 
     @Override
     public void tick(Particle particle, Level level) {
-        double spawnChance = chance.getValue(particle, level);
+        double spawnChance = chance.getValue(particle, level, 1);
         if (level.random.nextFloat() < spawnChance) {
             if (biomes.isPresent()) {
                 var biome = level.getBiome(BlockPos.containing(particle.x, particle.y, particle.z));
@@ -59,12 +59,12 @@ public record ParticleSoundEmitter(
             }
 
             Vec3 vec = new Vec3(particle.x, particle.y, particle.z).add(
-                    x.getValue(particle, level),
-                    y.getValue(particle, level),
-                    z.getValue(particle, level));
+                    x.getValue(particle, level, 0),
+                    y.getValue(particle, level, 0),
+                    z.getValue(particle, level, 0));
 
-            float v = (float) volume.getValue(particle, level);
-            float p = (float) pitch.getValue(particle, level);
+            float v = (float) volume.getValue(particle, level, 0);
+            float p = (float) pitch.getValue(particle, level, 0);
 
             level.playLocalSound( vec.x, vec.y, vec.z,
                     sound, category, v, p, false);
@@ -2,34 +2,63 @@ package net.mehvahdjukaar.polytone.texture;
 
 import com.google.gson.JsonElement;
 import com.mojang.serialization.DynamicOps;
-import com.mojang.serialization.JsonOps;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.utils.ActivationFlag;
 import net.mehvahdjukaar.polytone.utils.BakedQuadsTransformer;
 import net.mehvahdjukaar.polytone.utils.JsonPartialReloader;
+import net.mehvahdjukaar.polytone.utils.PartialReloader;
+import net.mehvahdjukaar.polytone.utils.profiling.HotPathMetrics;
+import net.minecraft.Util;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.block.BlockModelShaper;
 import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.client.renderer.chunk.RenderChunkRegion;
+import net.minecraft.client.renderer.texture.MissingTextureAtlasSprite;
 import net.minecraft.client.renderer.texture.TextureAtlas;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.core.Holder;
+import net.minecraft.core.HolderLookup;
 import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.level.BlockAndTintGetter;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 public class VariantTextureManager extends JsonPartialReloader {
 
-    private final WeakHashMap<BakedQuad, Map<ResourceLocation, BakedQuad>> variantQuadsCache = new WeakHashMap<>();
+    // checked per quad before anything else
+    public static final ActivationFlag ACTIVE = ActivationFlag.create();
+
+    private static final BakedQuad[] NO_VARIANTS = new BakedQuad[0];
+
+    // immutable once built. Swapped as a whole so chunk builder threads can read it without locking
+    private volatile QuadTable quadTable = QuadTable.EMPTY;
+
+    // quads we couldn't enumerate up front (weighted models, dynamic models...). Baked the first time we see them.
+    // direct mapped by identity so models that make new quads on every rebuild can't grow it. Collisions just bake again
+    private static final int LATE_SIZE = 1024;
+    private volatile LateQuad[] lateQuads = new LateQuad[LATE_SIZE];
 
     private final Map<Block, VariantTexture> blocksWithVariants = new Object2ObjectOpenHashMap<>();
 
@@ -38,10 +67,21 @@ public class VariantTextureManager extends JsonPartialReloader {
     // Just edit your models people!
     private final Set<Block> forceTintBlocks = new HashSet<>();
 
+    // what renderers check first. Built on reload so blocks with no Polytone quad work pay a single array read
+    private static final byte HAS_VARIANTS = 1;
+    private static final byte FORCE_TINT = 2;
+    private volatile byte[] stateFlags = new byte[0];
+    private volatile BitSet forceTintBlockIds = new BitSet();
+
     public VariantTextureManager() {
         super("variant_textures");
     }
 
+    @Override
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of(Polytone.BIOME_ID_MAPPERS);
+    }
+
     @Override
     public void process(Map<ResourceLocation, JsonElement> jsonElementMap, DynamicOps<JsonElement> ops) {
 
@@ -65,59 +105,193 @@ public class VariantTextureManager extends JsonPartialReloader {
 
     @Override
     protected void reset() {
+        ACTIVE.set(false);
         blocksWithVariants.clear();
-        variantQuadsCache.clear(); //we might need a lock here
+        quadTable = QuadTable.EMPTY;
+        lateQuads = new LateQuad[LATE_SIZE];
         forceTintBlocks.clear();
+        stateFlags = new byte[0];
+        forceTintBlockIds = new BitSet();
     }
 
+    // block modifiers have been applied by now so all tint hacks are known
+    @Override
+    protected void apply() {
+        byte[] flags = new byte[Block.BLOCK_STATE_REGISTRY.size()];
+        BitSet tintIds = new BitSet();
+        for (Block block : blocksWithVariants.keySet()) {
+            markStates(flags, block, HAS_VARIANTS);
+        }
+        for (Block block : forceTintBlocks) {
+            markStates(flags, block, FORCE_TINT);
+            tintIds.set(BuiltInRegistries.BLOCK.getId(block));
+        }
+        this.forceTintBlockIds = tintIds;
+        this.stateFlags = flags;
+        ACTIVE.set(!blocksWithVariants.isEmpty() || !forceTintBlocks.isEmpty());
+    }
 
-    public boolean shouldSetTintTo0(int tintIndex, BlockAndTintGetter blockView, BlockState state, BlockPos blockPos) {
-        if (tintIndex == -1 && !forceTintBlocks.isEmpty() && state != null) {
-            return forceTintBlocks.contains(state.getBlock());
+    private static void markStates(byte[] flags, Block block, byte flag) {
+        for (BlockState state : block.getStateDefinition().getPossibleStates()) {
+            int id = Block.getId(state);
+            if (id >= 0 && id < flags.length) flags[id] |= flag;
         }
-        return false;
     }
 
-    public BakedQuad maybeModify(BakedQuad quad, BlockAndTintGetter level, BlockState state, BlockPos pos) {
-        if (quad.tintIndex == -1 && !forceTintBlocks.isEmpty()) {
-            if (forceTintBlocks.contains(state.getBlock())) quad.tintIndex = 0;
+    public boolean hasQuadWork(BlockState state) {
+        byte[] flags = this.stateFlags;
+        int id = Block.getId(state);
+        return id >= 0 && id < flags.length && flags[id] != 0;
+    }
+
+    // biome ids are only known once we have a level
+    @Override
+    protected void applyWithLevel(HolderLookup.Provider access, boolean firstLogin) {
+        rebuildQuadTable(access);
+    }
+
+    // called once the block atlas has been stitched and models baked
+    public void onModelsBaked() {
+        Level level = Minecraft.getInstance().level;
+        if (level != null) {
+            rebuildQuadTable(level.registryAccess());
+        } else {
+            quadTable = QuadTable.EMPTY;
+            lateQuads = new LateQuad[LATE_SIZE];
+        }
+    }
+
+    private void rebuildQuadTable(HolderLookup.Provider access) {
+        lateQuads = new LateQuad[LATE_SIZE];
+        if (blocksWithVariants.isEmpty()) {
+            quadTable = QuadTable.EMPTY;
+            return;
         }
-        if (blocksWithVariants.isEmpty()) return null;
-        Block block = state.getBlock();
-        var variant = blocksWithVariants.get(block);
-        if (variant != null) {
-            var biomeToTexture = variant.getBiomeMap(quad.getSprite());
-            if (biomeToTexture != null && level instanceof RenderChunkRegion region) {
-                Holder<Biome> biome = region.level.getBiome(pos);
-                ResourceLocation biomeLoc = biome.unwrapKey().get().location();
-                ResourceLocation newTexture = biomeToTexture.get(biomeLoc);
-                if (newTexture != null) {
-                    return getOrCreateQuad(quad, biomeLoc, newTexture);
+        var biomes = access.lookupOrThrow(Registries.BIOME);
+        BlockModelShaper shaper = Minecraft.getInstance().getBlockRenderer().getBlockModelShaper();
+
+        Reference2IntMap<BakedQuad> ids = new Reference2IntOpenHashMap<>();
+        ids.defaultReturnValue(-1);
+        List<BakedQuad[]> variants = new ArrayList<>();
+        for (var e : blocksWithVariants.entrySet()) {
+            VariantTexture variant = e.getValue();
+            for (BlockState state : e.getKey().getStateDefinition().getPossibleStates()) {
+                BakedModel model = shaper.getBlockModel(state);
+                for (Direction dir : DIRECTIONS) {
+                    for (BakedQuad quad : model.getQuads(state, dir, RandomSource.create(42))) {
+                        if (ids.containsKey(quad)) continue;
+                        BakedQuad[] byBiome = bakeVariants(quad, variant, biomes);
+                        if (byBiome != NO_VARIANTS) {
+                            ids.put(quad, variants.size());
+                            variants.add(byBiome);
+                        }
+                    }
                 }
             }
         }
-        return null;
+        quadTable = new QuadTable(ids, variants.toArray(BakedQuad[][]::new));
+        if (!variants.isEmpty()) {
+            Polytone.LOGGER.info("Baked {} Variant Texture quads", variants.size());
+        }
     }
 
-    @NotNull
-    private BakedQuad getOrCreateQuad(BakedQuad quad, ResourceLocation biome, ResourceLocation newTexture) {
-        return variantQuadsCache.computeIfAbsent(quad, q -> new WeakHashMap<>())
-                .computeIfAbsent(biome,
-                        b -> {
-                            var s = Minecraft.getInstance().getTextureAtlas(TextureAtlas.LOCATION_BLOCKS).apply(newTexture);
-                            BakedQuadsTransformer transformer = BakedQuadsTransformer.create()
-                                    .applyingSprite(s);
+    private static final Direction[] DIRECTIONS = new Direction[]{null, Direction.DOWN, Direction.UP,
+            Direction.NORTH, Direction.SOUTH, Direction.WEST, Direction.EAST};
 
-                            return transformer.transform(quad);
+    // index is the biome registry id. Null entries mean no variant for that biome
+    private static BakedQuad[] bakeVariants(BakedQuad quad, VariantTexture variant,
+                                            HolderLookup.RegistryLookup<Biome> biomes) {
+        Map<ResourceLocation, ResourceLocation> biomeToTexture = variant.getBiomeMap(quad.getSprite());
+        if (biomeToTexture == null) return NO_VARIANTS;
+        var atlas = Minecraft.getInstance().getTextureAtlas(TextureAtlas.LOCATION_BLOCKS);
+        BakedQuad[] byBiome = NO_VARIANTS;
+        for (var e : biomeToTexture.entrySet()) {
+            var biome = biomes.get(ResourceKey.create(Registries.BIOME, e.getKey()));
+            if (biome.isEmpty()) continue;
+            int id = Polytone.BIOME_ID_MAPPERS.getBiomeId(biome.get().value());
+            if (id < 0) continue;
+            TextureAtlasSprite sprite = atlas.apply(e.getValue());
+            if (sprite.contents().name().equals(MissingTextureAtlasSprite.getLocation())) {
+                Polytone.LOGGER.warn("Could not find variant texture {} for biome {}", e.getValue(), e.getKey());
+            }
+            if (byBiome.length <= id) {
+                byBiome = Arrays.copyOf(byBiome, id + 1);
+            }
+            byBiome[id] = BakedQuadsTransformer.create()
+                    .applyingSprite(sprite)
+                    .transform(quad);
+        }
+        return byBiome;
+    }
 
-                        });
+    public boolean shouldSetTintTo0(int tintIndex, BlockAndTintGetter blockView, BlockState state, BlockPos blockPos) {
+        if (tintIndex == -1 && state != null) {
+            BitSet tintIds = this.forceTintBlockIds;
+            return !tintIds.isEmpty() && tintIds.get(BuiltInRegistries.BLOCK.getId(state.getBlock()));
+        }
+        return false;
     }
 
+    @Nullable
+    public BakedQuad maybeModify(BakedQuad quad, BlockAndTintGetter level, BlockState state, BlockPos pos) {
+        byte[] stateFlags = this.stateFlags;
+        int stateId = Block.getId(state);
+        if (stateId < 0 || stateId >= stateFlags.length) return null;
+        byte flags = stateFlags[stateId];
+        if (flags == 0) return null;
+        if ((flags & FORCE_TINT) != 0 && quad.tintIndex == -1) {
+            quad.tintIndex = 0;
+        }
+        if ((flags & HAS_VARIANTS) == 0) return null;
+        if (!(level instanceof RenderChunkRegion region)) return null;
+        BakedQuad[] byBiome = getVariants(quad, state);
+        if (byBiome.length == 0) return null;
+        Holder<Biome> biome = region.level.getBiome(pos);
+        int biomeId = Polytone.BIOME_ID_MAPPERS.getBiomeId(biome.value());
+        return biomeId >= 0 && biomeId < byBiome.length ? byBiome[biomeId] : null;
+    }
+
+    private BakedQuad[] getVariants(BakedQuad quad, BlockState state) {
+        QuadTable table = this.quadTable;
+        int id = table.ids.getInt(quad);
+        if (id >= 0) {
+            HotPathMetrics.hit(HotPathMetrics.Cache.VARIANT_QUAD);
+            return table.variants[id];
+        }
+        if (table == QuadTable.EMPTY) return NO_VARIANTS; // not baked yet
+        // not one we enumerated. Only happens for models that pick quads randomly or on the fly
+        LateQuad[] cache = this.lateQuads;
+        int index = System.identityHashCode(quad) & (LATE_SIZE - 1);
+        LateQuad late = cache[index];
+        if (late != null && late.quad == quad) {
+            HotPathMetrics.hit(HotPathMetrics.Cache.VARIANT_QUAD);
+            return late.variants;
+        }
+        HotPathMetrics.miss(HotPathMetrics.Cache.VARIANT_QUAD);
+        VariantTexture variant = blocksWithVariants.get(state.getBlock());
+        Level level = Minecraft.getInstance().level;
+        if (variant == null || level == null) return NO_VARIANTS;
+        BakedQuad[] byBiome = bakeVariants(quad, variant, level.registryAccess().lookupOrThrow(Registries.BIOME));
+        cache[index] = new LateQuad(quad, byBiome);
+        return byBiome;
+    }
+
+    // only collected here. Chunk builders read the published arrays so those are rebuilt and swapped in apply
     public void addTintOverrideHack(Block block) {
         if (block != Blocks.GRASS_BLOCK) {//hardcoding yay
             forceTintBlocks.add(block);
         }
     }
 
+    private record LateQuad(BakedQuad quad, BakedQuad[] variants) {
+    }
+
+    private record QuadTable(Reference2IntMap<BakedQuad> ids, BakedQuad[][] variants) {
+        private static final QuadTable EMPTY = Util.make(() -> {
+            Reference2IntMap<BakedQuad> ids = new Reference2IntOpenHashMap<>();
+            ids.defaultReturnValue(-1);
+            return new QuadTable(ids, new BakedQuad[0][]);
+        });
+    }
 
 }
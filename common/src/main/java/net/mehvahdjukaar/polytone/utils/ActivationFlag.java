@@ -0,0 +1,31 @@
+package net.mehvahdjukaar.polytone.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+
+// On/off switch a manager flips after reload so hooks can bail out when no pack uses that feature.
+// Backed by a MutableCallSite: held in a static final field the JIT folds isActive() to a constant and the whole hook
+// body goes away. Flipping it deoptimizes the callers, which is fine as it only happens on reload.
+// Record so the JIT trusts its final fields
+public record ActivationFlag(MutableCallSite site, MethodHandle getter) {
+
+    public static ActivationFlag create() {
+        MutableCallSite site = new MutableCallSite(MethodHandles.constant(boolean.class, false));
+        return new ActivationFlag(site, site.dynamicInvoker());
+    }
+
+    public boolean isActive() {
+        try {
+            return (boolean) getter.invokeExact();
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public void set(boolean active) {
+        if (isActive() == active) return;
+        site.setTarget(MethodHandles.constant(boolean.class, active));
+        MutableCallSite.syncAll(new MutableCallSite[]{site});
+    }
+}
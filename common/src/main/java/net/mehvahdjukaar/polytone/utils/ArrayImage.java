@@ -3,17 +3,23 @@ package net.mehvahdjukaar.polytone.utils;
 import com.mojang.blaze3d.platform.NativeImage;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.utils.profiling.ReloadProfiler;
+import net.minecraft.Util;
 import net.minecraft.resources.FileToIdConverter;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.Resource;
 import net.minecraft.server.packs.resources.ResourceManager;
-import net.minecraft.util.ARGB;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,47 +35,135 @@ public record ArrayImage(int[][] pixels, int width, int height) {
         return map;
     }
 
+    // caps how many images are decoded at once per scan. each one holds a native buffer while it's being read
+    private static final int MAX_PARALLEL_DECODES = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() - 1));
+
     public static void scanDirectory(ResourceManager manager, String path, Map<ResourceLocation, ArrayImage> map) {
 
         FileToIdConverter helper = new FileToIdConverter(path, ".png");
+        FileToIdConverter rawHelper = new FileToIdConverter(path, RawColormap.EXTENSION);
 
-        for (Map.Entry<ResourceLocation, Resource> entry : helper.listMatchingResources(manager).entrySet()) {
-            ResourceLocation fileId = entry.getKey();
-            ResourceLocation id = helper.fileToId(fileId);
+        // raw colormaps take the place of a png with the same name, unless the png comes from a higher pack
+        Map<ResourceLocation, Map.Entry<ResourceLocation, Resource>> raws = new HashMap<>();
+        for (var e : rawHelper.listMatchingResources(manager).entrySet()) {
+            raws.put(rawHelper.fileToId(e.getKey()), e);
+        }
+        Map<String, Integer> packOrder = null;
+
+        List<Map.Entry<ResourceLocation, Resource>> entries = new ArrayList<>();
+        List<ResourceLocation> ids = new ArrayList<>();
+        for (var e : helper.listMatchingResources(manager).entrySet()) {
+            ResourceLocation id = helper.fileToId(e.getKey());
+            var raw = raws.get(id);
+            if (raw != null) {
+                if (packOrder == null) packOrder = packOrder(manager);
+                // packs are listed from lowest to highest priority
+                int rawRank = packOrder.getOrDefault(raw.getValue().sourcePackId(), -1);
+                int pngRank = packOrder.getOrDefault(e.getValue().sourcePackId(), -1);
+                if (rawRank >= pngRank) continue;
+                raws.remove(id);
+            }
+            entries.add(e);
+            ids.add(id);
+        }
+        int pngCount = entries.size();
+        for (var e : raws.entrySet()) {
+            entries.add(e.getValue());
+            ids.add(e.getKey());
+        }
+        ArrayImage[] decoded = new ArrayImage[entries.size()];
+
+        // workers pull the next image from a shared counter until all are done
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < decoded.length) {
+                var entry = entries.get(i);
+                int index = i;
+                decoded[i] = ReloadProfiler.file(entry.getKey(), "image", () -> index < pngCount
+                        ? decode(entry.getValue(), entry.getKey(), ids.get(index))
+                        : decodeRaw(entry.getValue(), entry.getKey(), ids.get(index)));
+            }
+        };
+        int workers = Math.min(MAX_PARALLEL_DECODES, entries.size());
+        if (workers <= 1) {
+            worker.run();
+        } else {
+            CompletableFuture<?>[] futures = new CompletableFuture[workers - 1];
+            for (int w = 0; w < futures.length; w++) {
+                futures[w] = CompletableFuture.runAsync(worker, Util.backgroundExecutor());
+            }
+            // this thread helps too
+            worker.run();
+            CompletableFuture.allOf(futures).join();
+        }
 
-            try (InputStream inputStream = entry.getValue().open();
-                 NativeImage nativeImage = NativeImage.read(inputStream)) {
-                int[][] pixels = makePixelMatrix(nativeImage);
+        for (int i = 0; i < decoded.length; i++) {
+            ArrayImage image = decoded[i];
+            if (image == null) continue;
+            ResourceLocation id = ids.get(i);
+            ArrayImage oldImage = map.put(id, image);
+            if (oldImage != null) {
+                throw new IllegalStateException("Duplicate data file ignored with ID " + id);
+            }
+        }
+    }
+
+    private static Map<String, Integer> packOrder(ResourceManager manager) {
+        Map<String, Integer> order = new HashMap<>();
+        manager.listPacks().forEach(pack -> order.put(pack.packId(), order.size()));
+        return order;
+    }
 
+    @Nullable
+    private static ArrayImage decodeRaw(Resource resource, ResourceLocation fileId, ResourceLocation id) {
+        try {
+            return RawColormap.read(resource);
+        } catch (IOException e) {
+            Polytone.LOGGER.error("Couldn't parse raw colormap {} from {}", id, fileId, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static ArrayImage decode(Resource resource, ResourceLocation fileId, ResourceLocation id) {
+        try (InputStream inputStream = resource.open()) {
+            byte[] bytes = inputStream.readAllBytes();
+            ArrayImage bundled = PackBundle.getImage(resource.sourcePackId(), fileId, bytes);
+            if (bundled != null) return bundled;
+
+            String key = ImageCache.key(resource.sourcePackId(), fileId, bytes);
+            ArrayImage cached = ImageCache.get(key);
+            if (cached != null) return cached;
+
+            try (NativeImage nativeImage = NativeImage.read(bytes)) {
+                int[][] pixels = makePixelMatrix(nativeImage);
                 ArrayImage image = new ArrayImage(pixels, nativeImage.getWidth(), nativeImage.getHeight());
-                ArrayImage oldImage = map.put(id, image);
-                if (oldImage != null) {
-                    throw new IllegalStateException("Duplicate data file ignored with ID " + id);
-                }
-            } catch (IllegalArgumentException | IOException | UnsupportedOperationException var14) {
-                Polytone.LOGGER.error("Couldn't parse texture file {} from {}", id, fileId, var14);
+                ImageCache.put(key, image);
+                return image;
             }
+        } catch (IllegalArgumentException | IOException | UnsupportedOperationException var14) {
+            Polytone.LOGGER.error("Couldn't parse texture file {} from {}", id, fileId, var14);
+            return null;
         }
     }
 
-    //basically just swaps the color format
+    //basically just swaps the color format. one bulk copy out of the native buffer, then rows are split off it
     private static int[][] makePixelMatrix(NativeImage nativeImage) {
         if (nativeImage.format() != NativeImage.Format.RGBA) {
             throw new UnsupportedOperationException("Can only call makePixelMatrix for RGBA images.");
         } else {
             int width = nativeImage.getWidth();
             int height = nativeImage.getHeight();
+            int[] argb = nativeImage.getPixels();
             int[][] pixelMatrix = new int[height][width];
 
             for (int i = 0; i < height; ++i) {
+                int[] row = pixelMatrix[i];
+                System.arraycopy(argb, i * width, row, 0, width);
                 for (int j = 0; j < width; ++j) {
-                    int pixel = nativeImage.getPixel(j, i);
-                    pixelMatrix[i][j] = ARGB.color(
-                            255,
-                            ARGB.red(pixel),
-                            ARGB.green(pixel),
-                            ARGB.blue(pixel)
-                    );
+                    // alpha is always forced to opaque
+                    row[j] |= 0xFF000000;
                 }
             }
             return pixelMatrix;
@@ -3,92 +3,107 @@ package net.mehvahdjukaar.polytone.utils;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LightLayer;
 import net.minecraft.world.level.biome.Biome;
 
 public class ClientFrameTicker {
 
-    private static double time;
-    private static double timeOfDay;
-    private static double dayTime;
-    private static float rainAndThunder;
-    private static int skyLight;
-    private static int blockLight;
-    private static BlockPos cameraPos = BlockPos.ZERO;
-    public static Holder<Biome> cameraBiome;
-    private static float temperature;
-    private static float downfall;
-    private static float deltaTime;
-
+    private static volatile FrameContext context = FrameContext.EMPTY;
 
     public static void onRenderTick(Minecraft mc) {
         Level level = mc.level;
         if (level == null) return;
+        FrameContext old = context;
         float partialTicks = mc.getDeltaTracker().getGameTimeDeltaPartialTick(false);
 
-        time = level.getGameTime() + partialTicks;
-        dayTime = level.dimensionType().fixedTime().orElse(level.getDayTime()) + partialTicks;
-        timeOfDay = level.getTimeOfDay(partialTicks);
-        rainAndThunder = level.getRainLevel(partialTicks) * 0.5f + level.getThunderLevel(partialTicks) * 0.5f;
+        double time = level.getGameTime() + partialTicks;
+        double dayTime = level.dimensionType().fixedTime().orElse(level.getDayTime()) + partialTicks;
+        double timeOfDay = level.getTimeOfDay(partialTicks);
+        float rainAndThunder = level.getRainLevel(partialTicks) * 0.5f + level.getThunderLevel(partialTicks) * 0.5f;
+
+        BlockPos cameraPos = mc.gameRenderer.getMainCamera().getBlockPosition();
+        Holder<Biome> cameraBiome = level.getBiome(cameraPos);
+        var climate = ColorUtils.getClimateSettings(cameraBiome.value());
+
+        Player player = mc.player;
+        Holder<Biome> playerBiome = null;
+        if (player != null) {
+            BlockPos playerPos = player.blockPosition();
+            playerBiome = playerPos.equals(cameraPos) ? cameraBiome : level.getBiome(playerPos);
+        }
 
-        cameraPos = mc.gameRenderer.getMainCamera().getBlockPosition();
-        cameraBiome = level.getBiome(cameraPos);
+        Entity cameraEntity = mc.getCameraEntity();
 
-        deltaTime = Minecraft.getInstance().getDeltaTracker().getRealtimeDeltaTicks();
+        float deltaTime = mc.getDeltaTracker().getRealtimeDeltaTicks();
+
+        context = new FrameContext(old.frame() + 1, time, dayTime, timeOfDay, rainAndThunder, partialTicks, deltaTime,
+                cameraPos, cameraBiome, playerBiome,
+                cameraEntity != null,
+                cameraEntity != null ? cameraEntity.getX() : 0,
+                cameraEntity != null ? cameraEntity.getY() : 0,
+                cameraEntity != null ? cameraEntity.getZ() : 0,
+                climate.temperature, climate.downfall,
+                old.skyLight(), old.blockLight());
     }
 
     public static void onTick(Level level) {
-        if (cameraPos != null) {
-            skyLight = level.getBrightness(LightLayer.SKY, cameraPos);
-            blockLight = level.getBrightness(LightLayer.BLOCK, cameraPos);
-            var biome = level.getBiome(cameraPos);
-            temperature = ColorUtils.getClimateSettings(biome.value()).temperature;
-            downfall = ColorUtils.getClimateSettings(biome.value()).downfall;
+        FrameContext old = context;
+        BlockPos cameraPos = old.cameraPos();
+        int skyLight = level.getBrightness(LightLayer.SKY, cameraPos);
+        int blockLight = level.getBrightness(LightLayer.BLOCK, cameraPos);
+        if (skyLight != old.skyLight() || blockLight != old.blockLight()) {
+            context = old.withLight(skyLight, blockLight);
         }
     }
 
+    public static FrameContext getFrameContext() {
+        return context;
+    }
+
     public static float getRainAndThunder() {
-        return rainAndThunder;
+        return context.rainAndThunder();
     }
 
     public static double getDayTime() {
-        return dayTime;
+        return context.dayTime();
     }
 
     public static double getGameTime() {
-        return time;
+        return context.gameTime();
     }
 
     public static BlockPos getCameraPos() {
-        return cameraPos;
+        return context.cameraPos();
     }
 
     public static int getBlockLight() {
-        return blockLight;
+        return context.blockLight();
     }
 
     public static int getSkyLight() {
-        return skyLight;
+        return context.skyLight();
     }
 
     public static float getTemperature() {
-        return temperature;
+        return context.temperature();
     }
 
     public static float getDownfall() {
-        return downfall;
+        return context.downfall();
     }
 
     public static Holder<Biome> getCameraBiome() {
-        return cameraBiome;
+        return context.cameraBiome();
     }
 
     public static float getDeltaTime() {
-        return deltaTime;
+        return context.deltaTime();
     }
 
     public static double getSunTime() {
-        return timeOfDay;
+        return context.sunTime();
     }
 }
@@ -3,6 +3,9 @@ package net.mehvahdjukaar.polytone.utils;
 import com.google.common.base.Stopwatch;
 import com.mojang.serialization.JsonOps;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.utils.profiling.ReloadProfiler;
+import net.mehvahdjukaar.polytone.utils.profiling.ResourceCostProfiler;
+import net.minecraft.Util;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.core.RegistryAccess;
@@ -10,44 +13,170 @@ import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
 import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 // Needed to reload stuff in order but still off-thread when we can in prepare
-public class CompoundReloader extends SimplePreparableReloadListener<List<Object>> {
+public class CompoundReloader extends SimplePreparableReloadListener<CompoundReloader.Prepared> {
 
     private final List<PartialReloader<?>> children;
+    // fingerprints of what each child read on the last successful reload
+    private final Map<PartialReloader<?>, Long> lastFingerprints = new IdentityHashMap<>();
+    // reloader currently processing, for things created by codecs that need to know who owns them
+    @Nullable
+    private static PartialReloader<?> processing = null;
 
     public CompoundReloader(PartialReloader<?>... reloaders) {
         children = List.of(reloaders);
+        // process and apply still run in list order so dependencies have to respect it
+        for (int i = 0; i < children.size(); i++) {
+            var c = children.get(i);
+            for (var d : c.getDependencies()) {
+                int j = children.indexOf(d);
+                if (j == -1 || j >= i) {
+                    throw new IllegalStateException(c + " depends on " + d + " which is not registered before it");
+                }
+            }
+            // targets consume what was written when they process, so they come after
+            for (var t : c.getWriteTargets()) {
+                int j = children.indexOf(t);
+                if (j <= i) {
+                    throw new IllegalStateException(c + " writes into " + t + " which is not registered after it");
+                }
+            }
+        }
     }
 
     @Override
-    protected List<Object> prepare(ResourceManager resourceManager, ProfilerFiller profiler) {
-        //sequentially prepares all of them in order. Whole point of this is that we cant multi thread this part. This still happens off-thread
-        List<Object> list = new ArrayList<>();
-        for (var c : children) {
-            list.add(c.prepare(resourceManager));
+    protected Prepared prepare(ResourceManager resourceManager, ProfilerFiller profiler) {
+        // fans out over the background executor. Each reloader waits only on the ones it declares as dependencies.
+        // results are still collected in list order
+        Executor executor = Util.backgroundExecutor();
+        // single listing pass shared by all of them
+        IndexedResourceManager index = new IndexedResourceManager(resourceManager);
+        ReloadProfiler.begin();
+        ImageCache.beginReload();
+        PackBundle.load(resourceManager);
+        long[] fingerprints = new long[children.size()];
+        Map<PartialReloader<?>, CompletableFuture<Object>> futures = new IdentityHashMap<>();
+        List<CompletableFuture<Object>> ordered = new ArrayList<>(children.size());
+        for (int i = 0; i < children.size(); i++) {
+            var c = children.get(i);
+            int slot = i;
+            CompletableFuture<?>[] deps = c.getDependencies().stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture<Object> f = CompletableFuture.allOf(deps)
+                    .thenApplyAsync(v -> {
+                        var inputs = new IndexedResourceManager.Inputs();
+                        Object result = index.track(inputs, () -> ReloadProfiler.phase(c, "prepare", () -> c.prepare(index)));
+                        fingerprints[slot] = index.fingerprint(inputs);
+                        return result;
+                    }, executor);
+            futures.put(c, f);
+            ordered.add(f);
+        }
+        List<Object> list = new ArrayList<>(children.size());
+        try {
+            for (var f : ordered) {
+                list.add(f.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
         }
-        return list;
+        ImageCache.endReload();
+        PackBundle.clear();
+        return new Prepared(list, fingerprints);
+    }
+
+    public record Prepared(List<Object> results, long[] fingerprints) {
     }
 
     @Override
-    protected void apply(List<Object> object, ResourceManager resourceManager, ProfilerFiller profiler) {
+    protected void apply(Prepared prepared, ResourceManager resourceManager, ProfilerFiller profiler) {
         Level level = Minecraft.getInstance().level;
-        // clear existing lazy holder sets
-        LazyHolderSet.clearAll();
+        List<Object> object = prepared.results();
+
+        // only reloaders whose files changed, that depend on one that is reloading or share written entries with one run again
+        boolean[] rerun = new boolean[children.size()];
+        for (int i = 0; i < children.size(); i++) {
+            var c = children.get(i);
+            long fingerprint = prepared.fingerprints()[i];
+            Long old = lastFingerprints.get(c);
+            rerun[i] = !c.supportsIncrementalReload() || fingerprint == 0 || old == null || old != fingerprint;
+        }
+        // dependencies only pull in what comes after them, write targets go both ways, so repeat until stable
+        boolean changed;
+        do {
+            changed = false;
+            for (int i = 0; i < children.size(); i++) {
+                var c = children.get(i);
+                boolean r = rerun[i];
+                for (var d : c.getDependencies()) {
+                    r |= rerun[children.indexOf(d)];
+                }
+                for (var t : c.getWriteTargets()) {
+                    r |= rerun[children.indexOf(t)];
+                }
+                if (!r) continue;
+                if (!rerun[i]) {
+                    rerun[i] = true;
+                    changed = true;
+                }
+                for (var t : c.getWriteTargets()) {
+                    int j = children.indexOf(t);
+                    if (!rerun[j]) {
+                        rerun[j] = true;
+                        changed = true;
+                    }
+                }
+            }
+        } while (changed);
+        List<PartialReloader<?>> skipped = new ArrayList<>();
+        for (int i = 0; i < children.size(); i++) {
+            if (!rerun[i]) skipped.add(children.get(i));
+        }
+        // if anything below fails the next reload has to be a full one
+        lastFingerprints.clear();
+
+        // clear existing lazy holder sets and inline biome id mappers
+        if (skipped.isEmpty()) {
+            LazyHolderSet.clearAll();
+        } else {
+            for (int i = 0; i < children.size(); i++) {
+                if (rerun[i]) LazyHolderSet.clearOwnedBy(children.get(i));
+            }
+        }
+        for (int i = 0; i < children.size(); i++) {
+            if (rerun[i]) Polytone.BIOME_ID_MAPPERS.clearInlineOwnedBy(children.get(i));
+        }
 
         Stopwatch stopwatch = Stopwatch.createStarted();
-        for (var c : children) {
-            c.reset();
+        // skipped reloaders keep their expressions, so those need re-enabling too
+        ExpressionErrorTracker.resetAll();
+        for (int i = 0; i < children.size(); i++) {
+            if (rerun[i]) {
+                var c = children.get(i);
+                ReloadProfiler.runPhase(c, "reset", c::reset);
+            }
         }
 
         for (int i = 0; i < object.size(); i++) {
+            if (!rerun[i]) continue;
             PartialReloader<?> c = children.get(i);
             try {
-                processTyped(c, object.get(i));
+                LazyHolderSet.setOwner(c);
+                processing = c;
+                Object o = object.get(i);
+                ReloadProfiler.runPhase(c, "process", () -> processTyped(c, o));
             } catch (Exception e) {
                 String message = c + " failed to parse some resources";
                 Polytone.logException(e, message);
@@ -55,12 +184,18 @@ public class CompoundReloader extends SimplePreparableReloadListener<List<Object
 
                 Polytone.LOGGER.error(message);
                 throw e;
+            } finally {
+                LazyHolderSet.setOwner(null);
+                processing = null;
+                // in case a decode threw halfway
+                ResourceCostProfiler.endDecode();
             }
         }
 
         if (Minecraft.getInstance().level != null) {
             try {
-                LazyHolderSet.initializeAll(Minecraft.getInstance().level.registryAccess());
+                ReloadProfiler.runPhase("Lazy holder sets", "initialize",
+                        () -> LazyHolderSet.initializeAll(Minecraft.getInstance().level.registryAccess()));
             } catch (Exception e) {
                 String message = "failed to parse some resources";
                 Polytone.logException(e, message);
@@ -71,10 +206,14 @@ public class CompoundReloader extends SimplePreparableReloadListener<List<Object
             }
         }
 
-        for (var c : children) {
+        for (int i = 0; i < children.size(); i++) {
+            if (!rerun[i]) continue;
+            PartialReloader<?> c = children.get(i);
             try {
-                c.apply();
-                if(level != null) c.applyWithLevel(level.registryAccess(), false);
+                ReloadProfiler.runPhase(c, "apply", () -> {
+                    c.apply();
+                    if (level != null) c.applyWithLevel(level.registryAccess(), false);
+                });
             } catch (Exception e) {
                 String message = c + " failed to apply some resources";
                 Polytone.logException(e, message);
@@ -85,7 +224,20 @@ public class CompoundReloader extends SimplePreparableReloadListener<List<Object
             }
         }
 
+        for (int i = 0; i < children.size(); i++) {
+            lastFingerprints.put(children.get(i), prepared.fingerprints()[i]);
+        }
+
+        if (!skipped.isEmpty()) {
+            Polytone.LOGGER.info("Skipped unchanged Polytone reloaders: {}", skipped);
+        }
         Polytone.LOGGER.info("Reloaded Polytone Resources in {} ms", stopwatch.elapsed().toMillis());
+        ReloadProfiler.finish(stopwatch.elapsed().toNanos());
+    }
+
+    @Nullable
+    public static PartialReloader<?> getProcessing() {
+        return processing;
     }
 
     @SuppressWarnings("all")
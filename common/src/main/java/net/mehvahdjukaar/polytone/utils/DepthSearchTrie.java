@@ -1,5 +1,9 @@
 package net.mehvahdjukaar.polytone.utils;
 
+import it.unimi.dsi.fastutil.ints.Int2IntAVLTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2IntSortedMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
@@ -13,11 +17,16 @@ import java.util.*;
 public abstract class DepthSearchTrie<K, KT, O, I> {
     protected final TrieNode<K, KT, O> root;
 
+    // read only array copy of the tree. When present searches walk this instead of the nodes
+    @Nullable
+    private Frozen<O> frozen = null;
+
     public DepthSearchTrie() {
         root = new TrieNode<>();
     }
 
     public void insert(List<K> paths, O object) {
+        this.frozen = null;
         TrieNode<K, KT, O> current = root;
 
         // Traverse the trie to insert the path
@@ -41,8 +50,20 @@ public abstract class DepthSearchTrie<K, KT, O, I> {
 
     protected abstract K getKeyFromType(Object type, I stack);
 
+    // Used by the frozen trie. Key values are interned by whatever this returns, so it should be cheap to get from
+    // the value holder and must be equal for keys that are equal
+    protected Object getInternedKey(K key) {
+        return key;
+    }
+
+    @Nullable
+    protected Object getInternedKeyFromType(Object type, I valueHolder) {
+        return getKeyFromType(type, valueHolder);
+    }
+
 
     public boolean remove(List<K> path) {
+        this.frozen = null;
         TrieNode<K, KT, O> current = getNode(path);
         if (current == null) return false;
         current.children.clear();
@@ -59,6 +80,8 @@ public abstract class DepthSearchTrie<K, KT, O, I> {
 
     @Nullable
     public List<O> search(I valueHolder) {
+        Frozen<O> f = this.frozen;
+        if (f != null) return f.search(valueHolder, this);
         TrieNode<K, KT, O> current = getNode(valueHolder);
         if (current == null) return null;
         // Once at the target node, collect all objects from this node and its children
@@ -94,10 +117,121 @@ public abstract class DepthSearchTrie<K, KT, O, I> {
 
 
     public void clear() {
+        this.frozen = null;
         root.children.clear();
         root.object = null;
     }
 
+    /**
+     * Converts the tree into flat arrays. Key values are interned to int ids per key type so searching is just
+     * one hash lookup per level plus a binary search over primitive arrays. Any later insert or remove un-freezes it
+     */
+    public void freeze() {
+        this.frozen = Frozen.of(this);
+    }
+
+    public boolean isFrozen() {
+        return frozen != null;
+    }
+
+    private static final class Frozen<O> {
+        private final Object[] types;
+        private final Object2IntMap<Object>[] keyIds; // one per type
+        private final int[] nodeTypes; // -1 for none
+        private final int[][] childKeys; // sorted
+        private final int[][] childNodes;
+        private final int[] wildcardChild; // -1 for none
+        private final List<O>[] objects;
+
+        @SuppressWarnings("unchecked")
+        private Frozen(Object[] types, Object2IntMap<Object>[] keyIds, int nodeCount) {
+            this.types = types;
+            this.keyIds = keyIds;
+            this.nodeTypes = new int[nodeCount];
+            this.childKeys = new int[nodeCount][];
+            this.childNodes = new int[nodeCount][];
+            this.wildcardChild = new int[nodeCount];
+            this.objects = new List[nodeCount];
+        }
+
+        private static <K, KT, O, I> Frozen<O> of(DepthSearchTrie<K, KT, O, I> trie) {
+            // breadth first so children always come after their parent
+            List<TrieNode<K, KT, O>> nodes = new ArrayList<>();
+            Map<TrieNode<K, KT, O>, Integer> nodeIds = new IdentityHashMap<>();
+            List<Object> types = new ArrayList<>();
+            Map<Object, Integer> typeIds = new HashMap<>();
+            List<Object2IntMap<Object>> keyIds = new ArrayList<>();
+
+            nodes.add(trie.root);
+            nodeIds.put(trie.root, 0);
+            for (int i = 0; i < nodes.size(); i++) {
+                TrieNode<K, KT, O> node = nodes.get(i);
+                if (node.type != null && !typeIds.containsKey(node.type)) {
+                    typeIds.put(node.type, types.size());
+                    types.add(node.type);
+                    Object2IntMap<Object> ids = new Object2IntOpenHashMap<>();
+                    ids.defaultReturnValue(-1);
+                    keyIds.add(ids);
+                }
+                for (var child : node.children.values()) {
+                    nodeIds.put(child, nodes.size());
+                    nodes.add(child);
+                }
+            }
+
+            @SuppressWarnings("unchecked")
+            Frozen<O> frozen = new Frozen<>(types.toArray(), keyIds.toArray(Object2IntMap[]::new), nodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                TrieNode<K, KT, O> node = nodes.get(i);
+                int typeId = node.type == null ? -1 : typeIds.get(node.type);
+                frozen.nodeTypes[i] = typeId;
+                frozen.objects[i] = node.object;
+                frozen.wildcardChild[i] = -1;
+
+                // sorted by interned key id
+                Int2IntSortedMap children = new Int2IntAVLTreeMap();
+                for (var e : node.children.entrySet()) {
+                    int childId = nodeIds.get(e.getValue());
+                    if (e.getKey() == null) {
+                        frozen.wildcardChild[i] = childId;
+                    } else if (typeId >= 0) {
+                        Object2IntMap<Object> ids = frozen.keyIds[typeId];
+                        Object interned = trie.getInternedKey(e.getKey());
+                        int keyId = ids.getInt(interned);
+                        if (keyId == -1) {
+                            keyId = ids.size();
+                            ids.put(interned, keyId);
+                        }
+                        children.put(keyId, childId);
+                    }
+                }
+                frozen.childKeys[i] = children.keySet().toIntArray();
+                frozen.childNodes[i] = children.values().toIntArray();
+            }
+            return frozen;
+        }
+
+        @Nullable
+        private <I> List<O> search(I valueHolder, DepthSearchTrie<?, ?, O, I> trie) {
+            int node = 0;
+            while (true) {
+                int typeId = nodeTypes[node];
+                if (typeId < 0) return objects[node];
+                Object key = trie.getInternedKeyFromType(types[typeId], valueHolder);
+                if (key == null) return objects[node];
+                int child = -1;
+                int keyId = keyIds[typeId].getInt(key);
+                if (keyId >= 0) {
+                    int index = Arrays.binarySearch(childKeys[node], keyId);
+                    if (index >= 0) child = childNodes[node][index];
+                }
+                if (child < 0) child = wildcardChild[node];
+                if (child < 0) return objects[node];
+                node = child;
+            }
+        }
+    }
+
     public Collection<K> listKeys(List<K> path) {
         TrieNode<K, KT, O> startNode = getNode(path);
         if (startNode != null) {
@@ -136,6 +270,7 @@ public abstract class DepthSearchTrie<K, KT, O, I> {
     }
 
     public void optimizeTree() {
+        this.frozen = null;
         optimizeNode(root);
     }
 
@@ -0,0 +1,60 @@
+package net.mehvahdjukaar.polytone.utils;
+
+import net.mehvahdjukaar.polytone.Polytone;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Rough static cost of an expression, computed once when it's decoded. Units are about one cheap operator each.
+// exp4j expressions have no loops so this is a fair upper bound of what one evaluation does.
+// Anything above -Dpolytone.expressionCostWarn (default 200) gets a warning as it runs per vertex or per particle
+public final class ExpressionCost {
+
+    private static final int WARN_ABOVE = Integer.getInteger("polytone.expressionCostWarn", 200);
+
+    private static final Pattern CALL = Pattern.compile("([A-Za-z_][A-Za-z0-9_]*)\\s*\\(");
+    private static final Pattern OPERATOR = Pattern.compile("[-+*/%^!<>=]+");
+
+    private static final int OPERATOR_COST = 1;
+    private static final int POW_COST = 4;
+    private static final int CALL_COST = 2;
+    private static final int TRIG_COST = 4;
+    private static final int RANDOM_COST = 6;
+    // allocates property lists every call
+    private static final int STATE_PROP_COST = 25;
+    // one perlin sample per octave
+    private static final int NOISE_COST = 40;
+
+    public static int estimate(String expression) {
+        int cost = 0;
+        Matcher call = CALL.matcher(expression);
+        while (call.find()) {
+            cost += callCost(call.group(1));
+        }
+        Matcher op = OPERATOR.matcher(expression);
+        while (op.find()) {
+            cost += op.group().equals("^") ? POW_COST : OPERATOR_COST;
+        }
+        return cost;
+    }
+
+    private static int callCost(String name) {
+        if (name.startsWith("noise")) return NOISE_COST;
+        return switch (name) {
+            case "state_prop", "state_prop_i" -> STATE_PROP_COST;
+            case "rand", "gaussian" -> RANDOM_COST;
+            case "cos", "sin", "atan2", "acos", "asin", "atan", "tan", "exp", "log", "log10", "log2", "log1p", "pow",
+                 "cbrt", "sqrt", "sinh", "cosh", "tanh" -> TRIG_COST;
+            default -> CALL_COST;
+        };
+    }
+
+    public static void warnIfExpensive(String expression) {
+        if (WARN_ABOVE <= 0) return;
+        int cost = estimate(expression);
+        if (cost > WARN_ABOVE) {
+            Polytone.LOGGER.warn("Expression {} has an estimated cost of {} (warning threshold is {}). " +
+                    "It runs for every vertex or particle it applies to so consider simplifying it", expression, cost, WARN_ABOVE);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package net.mehvahdjukaar.polytone.utils;
+
+import net.mehvahdjukaar.polytone.Polytone;
+import net.minecraft.Util;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.components.toasts.SystemToast;
+import net.minecraft.network.chat.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One per compiled expression. Expressions run per vertex so a broken one would otherwise log thousands of stack
+// traces per second. Only the first failure gets a stack trace, after that we log at most once every few seconds
+// with a count of what was suppressed. Past the limit the expression is disabled and pinned to its default value.
+// Limit can be changed with -Dpolytone.expressionErrorLimit=N, 0 or less never disables.
+// Every resource reload starts a new generation which re-enables all of them, including the ones owned by reloaders
+// that were skipped and so never rebuilt.
+// Expressions that declare a runtime budget have 1 in 64 evaluations timed and every overrun counts as an error
+public final class ExpressionErrorTracker {
+
+    private static final int DISABLE_AFTER = Integer.getInteger("polytone.expressionErrorLimit", 1000);
+    private static final long LOG_INTERVAL_MS = 5000;
+    private static final int BUDGET_SAMPLE_MASK = 63;
+
+    private static volatile int generation = 0;
+
+    private final String expression;
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicInteger suppressed = new AtomicInteger();
+    private final AtomicLong lastLog = new AtomicLong();
+    // generation this got disabled in and the one the error count belongs to
+    private final AtomicInteger disabledIn = new AtomicInteger(-1);
+    private volatile int countingIn = 0;
+    private float budgetMicros = 0;
+    private long budgetNanos = 0;
+    // racy on purpose, only used to pick which calls to time
+    private int tick;
+
+    public ExpressionErrorTracker(String expression) {
+        this.expression = expression;
+    }
+
+    public boolean isDisabled() {
+        return disabledIn.get() == generation;
+    }
+
+    public static void resetAll() {
+        generation++;
+    }
+
+    public void setBudget(float micros) {
+        this.budgetMicros = micros;
+        this.budgetNanos = (long) (micros * 1000);
+    }
+
+    public float getBudget() {
+        return budgetMicros;
+    }
+
+    // returns a start time if this evaluation should be checked against the budget, 0 otherwise
+    public long startBudget() {
+        if (budgetNanos == 0 || (tick++ & BUDGET_SAMPLE_MASK) != 0) return 0;
+        return System.nanoTime();
+    }
+
+    public void checkBudget(long start) {
+        if (start == 0) return;
+        long took = System.nanoTime() - start;
+        if (took > budgetNanos) {
+            onError(new IllegalStateException(String.format(Locale.ROOT,
+                    "Evaluation took %.2fus, over its budget of %.2fus", took / 1000f, budgetMicros)));
+        }
+    }
+
+    public void onError(Exception e) {
+        int gen = generation;
+        if (countingIn != gen) {
+            // racy but at worst a few errors land in the wrong generation
+            countingIn = gen;
+            errors.set(0);
+            suppressed.set(0);
+        }
+        int count = errors.incrementAndGet();
+        long now = Util.getMillis();
+        if (count == 1) {
+            lastLog.set(now);
+            Polytone.LOGGER.error("Failed to evaluate expression with value: {}", expression, e);
+            return;
+        }
+        if (DISABLE_AFTER > 0 && count >= DISABLE_AFTER) {
+            int d = disabledIn.get();
+            if (d != gen && disabledIn.compareAndSet(d, gen)) {
+                Polytone.LOGGER.warn("Disabled expression {} after it failed {} times. It will return its default value until the next resource reload",
+                        expression, count);
+                Minecraft mc = Minecraft.getInstance();
+                mc.execute(() -> SystemToast.addOrUpdate(mc.getToastManager(), SystemToast.SystemToastId.PACK_LOAD_FAILURE,
+                        Component.translatable("toast.polytone.expression_disabled"),
+                        Component.literal(expression)));
+            }
+            return;
+        }
+        long last = lastLog.get();
+        if (now - last >= LOG_INTERVAL_MS && lastLog.compareAndSet(last, now)) {
+            Polytone.LOGGER.error("Expression {} failed again: {} ({} similar errors suppressed)",
+                    expression, e.toString(), suppressed.getAndSet(0));
+        } else {
+            suppressed.incrementAndGet();
+        }
+    }
+}
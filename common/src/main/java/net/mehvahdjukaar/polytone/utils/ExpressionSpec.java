@@ -0,0 +1,19 @@
+package net.mehvahdjukaar.polytone.utils;
+
+import com.mojang.datafixers.util.Either;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+
+// What pack expressions decode from. Either a plain string or an object that also declares a runtime budget:
+// {"expression": "noise(POS_X, POS_Z)", "budget_us": 2}
+public record ExpressionSpec(String expression, float budgetMicros) {
+
+    private static final Codec<ExpressionSpec> OBJECT_CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.STRING.fieldOf("expression").forGetter(ExpressionSpec::expression),
+            Codec.floatRange(0, Float.MAX_VALUE).optionalFieldOf("budget_us", 0f).forGetter(ExpressionSpec::budgetMicros)
+    ).apply(i, ExpressionSpec::new));
+
+    public static final Codec<ExpressionSpec> CODEC = Codec.either(Codec.STRING, OBJECT_CODEC).xmap(
+            e -> e.map(s -> new ExpressionSpec(s, 0), s -> s),
+            s -> s.budgetMicros > 0 ? Either.right(s) : Either.left(s.expression));
+}
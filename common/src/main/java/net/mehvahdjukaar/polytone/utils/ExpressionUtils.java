@@ -1,6 +1,7 @@
 package net.mehvahdjukaar.polytone.utils;
 
 import net.mehvahdjukaar.polytone.Polytone;
+import net.minecraft.Util;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.ARGB;
 import net.minecraft.util.Mth;
@@ -187,14 +188,18 @@ public class ExpressionUtils {
             if (arg < 0) {
                 throw new IllegalArgumentException("The operand of the factorial can not be less than zero");
             }
-            double result = 1;
-            for (int i = 1; i <= arg; i++) {
-                result *= i;
-            }
-            return result;
+            // used to loop up to the operand. Anything past 170! overflows a double anyway
+            return arg < FACTORIALS.length ? FACTORIALS[arg] : Double.POSITIVE_INFINITY;
         }
     };
 
+    private static final double[] FACTORIALS = Util.make(new double[171], f -> {
+        f[0] = 1;
+        for (int i = 1; i < f.length; i++) {
+            f[i] = f[i - 1] * i;
+        }
+    });
+
 
     public static Function[] defFunc(Function... others) {
         List<Function> list = new ArrayList<>();
@@ -0,0 +1,34 @@
+package net.mehvahdjukaar.polytone.utils;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.world.level.biome.Biome;
+import org.jetbrains.annotations.Nullable;
+
+// Immutable snapshot of everything camera related that gets sampled during a frame.
+// Published once per render tick by ClientFrameTicker so hot paths don't have to query the level again
+public record FrameContext(long frame, double gameTime, double dayTime, double sunTime,
+                           float rainAndThunder, float partialTick, float deltaTime,
+                           BlockPos cameraPos, @Nullable Holder<Biome> cameraBiome,
+                           @Nullable Holder<Biome> playerBiome,
+                           boolean hasCameraEntity, double cameraEntityX, double cameraEntityY, double cameraEntityZ,
+                           float temperature, float downfall,
+                           int skyLight, int blockLight) {
+
+    public static final FrameContext EMPTY = new FrameContext(0, 0, 0, 0, 0, 0, 0,
+            BlockPos.ZERO, null, null, false, 0, 0, 0, 0, 0, 0, 0);
+
+    public double distanceSqrToCameraEntity(double x, double y, double z) {
+        double dx = x - cameraEntityX;
+        double dy = y - cameraEntityY;
+        double dz = z - cameraEntityZ;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // light is only updated once per tick
+    FrameContext withLight(int skyLight, int blockLight) {
+        return new FrameContext(frame, gameTime, dayTime, sunTime, rainAndThunder, partialTick, deltaTime,
+                cameraPos, cameraBiome, playerBiome, hasCameraEntity, cameraEntityX, cameraEntityY, cameraEntityZ,
+                temperature, downfall, skyLight, blockLight);
+    }
+}
@@ -6,6 +6,8 @@ import java.util.*;
 public class FrequencyOrderedCollection<T> implements Collection<T> {
     private final Map<T, Integer> frequencies = new HashMap<>();
     private List<Map.Entry<T, Integer>> sortedEntries = new ArrayList<>();
+    // sorting is deferred until something actually reads the order, so n adds cost a single sort instead of n
+    private boolean dirty = false;
 
     // Add an element with a default count of 1
     @Override
@@ -18,17 +20,8 @@ public class FrequencyOrderedCollection<T> implements Collection<T> {
         if (count <= 0) {
             return false; // Do not add if count is non-positive
         }
-        boolean wasAdded = frequencies.containsKey(obj);
         frequencies.merge(obj, count, Integer::sum);
-
-        // Update sortedEntries list if the element was already in the map
-        if (wasAdded) {
-            updateSortedEntries();
-        } else {
-            // New entry, need to re-sort
-            sortedEntries = new ArrayList<>(frequencies.entrySet());
-            sortedEntries.sort((entry1, entry2) -> entry2.getValue().compareTo(entry1.getValue()));
-        }
+        dirty = true;
         return true;
     }
 
@@ -62,15 +55,23 @@ public class FrequencyOrderedCollection<T> implements Collection<T> {
         return remove(obj);
     }
 
-    // Update sortedEntries list based on current frequencies
+    // Mark sortedEntries as stale, it will be rebuilt on next read
     private void updateSortedEntries() {
-        sortedEntries = new ArrayList<>(frequencies.entrySet());
-        sortedEntries.sort((entry1, entry2) -> entry2.getValue().compareTo(entry1.getValue()));
+        dirty = true;
+    }
+
+    private List<Map.Entry<T, Integer>> sorted() {
+        if (dirty) {
+            sortedEntries = new ArrayList<>(frequencies.entrySet());
+            sortedEntries.sort((entry1, entry2) -> entry2.getValue().compareTo(entry1.getValue()));
+            dirty = false;
+        }
+        return sortedEntries;
     }
 
     // Get the element with the highest frequency
     public T getFirst() {
-        if (!sortedEntries.isEmpty()) {
+        if (!sorted().isEmpty()) {
             return sortedEntries.get(0).getKey();
         }
         return null; // Return null if the collection is empty
@@ -78,7 +79,7 @@ public class FrequencyOrderedCollection<T> implements Collection<T> {
 
     // Get the element with the lowest frequency
     public T getLast() {
-        if (!sortedEntries.isEmpty()) {
+        if (!sorted().isEmpty()) {
             return sortedEntries.get(sortedEntries.size() - 1).getKey();
         }
         return null; // Return null if the collection is empty
@@ -86,7 +87,7 @@ public class FrequencyOrderedCollection<T> implements Collection<T> {
 
     @Override
     public Iterator<T> iterator() {
-        return sortedEntries.stream().map(Map.Entry::getKey).iterator();
+        return sorted().stream().map(Map.Entry::getKey).iterator();
     }
 
     @Override
@@ -106,12 +107,12 @@ public class FrequencyOrderedCollection<T> implements Collection<T> {
 
     @Override
     public Object[] toArray() {
-        return sortedEntries.stream().map(Map.Entry::getKey).toArray();
+        return sorted().stream().map(Map.Entry::getKey).toArray();
     }
 
     @Override
     public <U> U[] toArray(U[] a) {
-        return sortedEntries.stream().map(Map.Entry::getKey).toArray(size -> a);
+        return sorted().stream().map(Map.Entry::getKey).toArray(size -> a);
     }
 
     @Override
@@ -170,6 +171,7 @@ public class FrequencyOrderedCollection<T> implements Collection<T> {
     public void clear() {
         frequencies.clear();
         sortedEntries.clear();
+        dirty = false;
     }
 
 }
@@ -0,0 +1,113 @@
+package net.mehvahdjukaar.polytone.utils;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import net.mehvahdjukaar.polytone.Polytone;
+import net.minecraft.client.Minecraft;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Decoded images persisted in the game directory so unchanged pngs don't have to be decoded again on the next reload.
+// Entries are keyed on a hash of source pack, path and file content. Layout is a tiny header followed by raw argb
+// rows, read back with a single bulk read. Not memory mapped since a live mapping keeps the file locked on windows
+// and the cleanup below would silently stop working. Anything going wrong here just means a cache miss
+public class ImageCache {
+
+    private static final int MAGIC = 0x50544943; // PTIC
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+
+    private static final Set<String> USED = ConcurrentHashMap.newKeySet();
+
+    private static Path dir() {
+        return Minecraft.getInstance().gameDirectory.toPath().resolve("polytone").resolve("cache");
+    }
+
+    public static String key(String packId, ResourceLocation fileId, byte[] content) {
+        Hasher h = Hashing.murmur3_128().newHasher();
+        h.putString(packId, StandardCharsets.UTF_8);
+        h.putString(fileId.toString(), StandardCharsets.UTF_8);
+        h.putBytes(content);
+        return h.hash().toString();
+    }
+
+    @Nullable
+    public static ArrayImage get(String key) {
+        USED.add(key);
+        Path file = dir().resolve(key + ".bin");
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            long size = Files.size(file);
+            if (size < HEADER || size > Integer.MAX_VALUE) return null;
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            if (width <= 0 || height <= 0 || buffer.capacity() != HEADER + 4L * width * height) return null;
+            IntBuffer ints = buffer.asIntBuffer();
+            int[][] pixels = new int[height][width];
+            for (int i = 0; i < height; i++) {
+                ints.get(pixels[i]);
+            }
+            return new ArrayImage(pixels, width, height);
+        } catch (IOException | RuntimeException e) {
+            Polytone.LOGGER.warn("Failed to read cached image {}", file, e);
+            return null;
+        }
+    }
+
+    public static void put(String key, ArrayImage image) {
+        try {
+            Path dir = dir();
+            Files.createDirectories(dir);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER + 4 * image.width() * image.height());
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(image.width()).putInt(image.height());
+            IntBuffer ints = buffer.asIntBuffer();
+            for (int[] row : image.pixels()) {
+                ints.put(row);
+            }
+            // same file can be decoded by two reloaders at once, so write aside and move in place
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, buffer.array());
+            Files.move(tmp, dir.resolve(key + ".bin"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Polytone.LOGGER.warn("Failed to cache decoded image {}", key, e);
+        }
+    }
+
+    public static void beginReload() {
+        USED.clear();
+    }
+
+    // drops entries nothing asked for this reload, so the cache only ever holds the current packs
+    public static void endReload() {
+        Path dir = dir();
+        if (!Files.isDirectory(dir)) return;
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(f -> {
+                String name = f.getFileName().toString();
+                if (name.endsWith(".tmp") || (name.endsWith(".bin") && !USED.contains(name.substring(0, name.length() - 4)))) {
+                    try {
+                        Files.deleteIfExists(f);
+                    } catch (IOException e) {
+                        Polytone.LOGGER.warn("Failed to delete stale cached image {}", f, e);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            Polytone.LOGGER.warn("Failed to clean up image cache", e);
+        }
+        USED.clear();
+    }
+}
@@ -0,0 +1,183 @@
+package net.mehvahdjukaar.polytone.utils;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import net.mehvahdjukaar.polytone.Polytone;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.PackResources;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.resources.ResourceManager;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Lists everything under the directories polytone reads from exactly once per reload and answers all listing queries
+// from that, instead of having every reloader walk the whole pack stack again.
+// Anything outside the indexed roots, and all single resource lookups, just go to the wrapped manager
+public class IndexedResourceManager implements ResourceManager {
+
+    private static final String[] ROOTS = {Polytone.MOD_ID, "optifine", "colormatic"};
+
+    private final ResourceManager delegate;
+    // root -> "path namespace" -> stack, sorted so a directory is a contiguous range
+    private final Map<String, TreeMap<String, Entry>> index = new HashMap<>();
+
+    private record Entry(ResourceLocation id, List<Resource> stack) {
+    }
+
+    // what each reloader reads while preparing, so we can tell later if its inputs changed
+    private final ThreadLocal<Inputs> tracking = new ThreadLocal<>();
+    private final Map<Resource, Long> contentHashes = new ConcurrentHashMap<>();
+
+    public static final class Inputs {
+        private final Set<ResourceLocation> read = ConcurrentHashMap.newKeySet();
+        // listed something outside the index. we can't fingerprint that
+        private volatile boolean untracked = false;
+    }
+
+    public IndexedResourceManager(ResourceManager delegate) {
+        this.delegate = delegate;
+        for (String root : ROOTS) {
+            TreeMap<String, Entry> entries = new TreeMap<>();
+            delegate.listResourceStacks(root, id -> true).forEach((id, stack) ->
+                    entries.put(id.getPath() + " " + id.getNamespace(), new Entry(id, List.copyOf(stack))));
+            index.put(root, entries);
+        }
+    }
+
+    public <T> T track(Inputs inputs, Supplier<T> task) {
+        tracking.set(inputs);
+        try {
+            return task.get();
+        } finally {
+            tracking.remove();
+        }
+    }
+
+    // hash of ids, source packs and contents of everything read. 0 when it can't be known
+    public long fingerprint(Inputs inputs) {
+        if (inputs.untracked) return 0;
+        List<ResourceLocation> ids = new ArrayList<>(inputs.read);
+        ids.sort(null);
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (var id : ids) {
+            hasher.putString(id.toString(), StandardCharsets.UTF_8);
+            for (var r : stackOf(id)) {
+                hasher.putString(r.sourcePackId(), StandardCharsets.UTF_8);
+                Long content = contentHashes.computeIfAbsent(r, IndexedResourceManager::hashContent);
+                if (content == null) return 0;
+                hasher.putLong(content);
+            }
+        }
+        long hash = hasher.hash().asLong();
+        return hash == 0 ? 1 : hash;
+    }
+
+    private List<Resource> stackOf(ResourceLocation id) {
+        String path = id.getPath();
+        int slash = path.indexOf('/');
+        TreeMap<String, Entry> entries = index.get(slash == -1 ? path : path.substring(0, slash));
+        Entry e = entries == null ? null : entries.get(path + " " + id.getNamespace());
+        return e != null ? e.stack : delegate.getResourceStack(id);
+    }
+
+    @Nullable
+    private static Long hashContent(Resource resource) {
+        try (InputStream stream = resource.open()) {
+            return Hashing.murmur3_128().hashBytes(stream.readAllBytes()).asLong();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void markRead(ResourceLocation id) {
+        Inputs in = tracking.get();
+        if (in != null) in.read.add(id);
+    }
+
+    private void markUntracked() {
+        Inputs in = tracking.get();
+        if (in != null) in.untracked = true;
+    }
+
+    // null if the path is not under an indexed root
+    private Map<String, Entry> directory(String path) {
+        int slash = path.indexOf('/');
+        String root = slash == -1 ? path : path.substring(0, slash);
+        TreeMap<String, Entry> entries = index.get(root);
+        if (entries == null) return null;
+        if (slash == -1) return entries;
+        // '0' is the char right after '/'
+        return entries.subMap(path + "/", path + "0");
+    }
+
+    @Override
+    public Map<ResourceLocation, Resource> listResources(String path, Predicate<ResourceLocation> filter) {
+        var dir = directory(path);
+        if (dir == null) {
+            markUntracked();
+            return delegate.listResources(path, filter);
+        }
+        Map<ResourceLocation, Resource> map = new TreeMap<>();
+        for (var e : dir.values()) {
+            // top of the stack, the same one the manager itself would give us
+            if (filter.test(e.id)) {
+                markRead(e.id);
+                map.put(e.id, e.stack.get(e.stack.size() - 1));
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public Map<ResourceLocation, List<Resource>> listResourceStacks(String path, Predicate<ResourceLocation> filter) {
+        var dir = directory(path);
+        if (dir == null) {
+            markUntracked();
+            return delegate.listResourceStacks(path, filter);
+        }
+        Map<ResourceLocation, List<Resource>> map = new TreeMap<>();
+        for (var e : dir.values()) {
+            if (filter.test(e.id)) {
+                markRead(e.id);
+                map.put(e.id, e.stack);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public Set<String> getNamespaces() {
+        return delegate.getNamespaces();
+    }
+
+    @Override
+    public List<Resource> getResourceStack(ResourceLocation location) {
+        markRead(location);
+        return delegate.getResourceStack(location);
+    }
+
+    @Override
+    public Stream<PackResources> listPacks() {
+        return delegate.listPacks();
+    }
+
+    @Override
+    public Optional<Resource> getResource(ResourceLocation location) {
+        markRead(location);
+        return delegate.getResource(location);
+    }
+}
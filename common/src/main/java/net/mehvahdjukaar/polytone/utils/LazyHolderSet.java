@@ -9,6 +9,7 @@ import net.minecraft.resources.ResourceKey;
 import net.minecraft.tags.TagKey;
 import net.minecraft.util.RandomSource;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -32,6 +33,18 @@ public class LazyHolderSet<T> implements HolderSet<T> {
         TO_INITIALIZE.clear();
     }
 
+    // whoever is decoding right now. lets a partial reload drop only the sets of the reloaders it reprocesses
+    @Nullable
+    private static Object currentOwner = null;
+
+    public static void setOwner(@Nullable Object owner) {
+        currentOwner = owner;
+    }
+
+    public static void clearOwnedBy(Object owner) {
+        TO_INITIALIZE.removeIf(l -> l.owner == owner);
+    }
+
     //hacky
     public static <A> Codec<LazyHolderSet<A>> codec(ResourceKey<? extends Registry<A>> registry) {
         return Codec.PASSTHROUGH
@@ -47,11 +60,14 @@ public class LazyHolderSet<T> implements HolderSet<T> {
     private final JsonElement json;
     private final ResourceKey<? extends Registry<T>> registry;
     private HolderSet<T> instance;
+    @Nullable
+    private final Object owner;
 
 
     public LazyHolderSet(Dynamic<?> json, ResourceKey<? extends Registry<T>> registry) {
         this.json = (JsonElement) json.getValue();
         this.registry = registry;
+        this.owner = currentOwner;
         TO_INITIALIZE.add(this);
     }
 
@@ -315,7 +315,11 @@ public class LegacyHelper {
     }
 
     public static int getBiomeId(Biome biome) {
-        return BIOME_ID_MAP.getOrDefault(BiomeKeysCache.get(biome), 0);
+        return getBiomeId(BiomeKeysCache.get(biome));
+    }
+
+    public static int getBiomeId(ResourceKey<Biome> biomeKey) {
+        return BIOME_ID_MAP.getOrDefault(biomeKey, 0);
     }
 
     //whateve optifine uses...
@@ -0,0 +1,107 @@
+package net.mehvahdjukaar.polytone.utils;
+
+import net.mehvahdjukaar.polytone.Polytone;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.PackResources;
+import net.minecraft.server.packs.resources.IoSupplier;
+import net.minecraft.server.packs.resources.ResourceManager;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Pre-decoded images written by the offline pack compiler (see the compiler module) into polytone.bundle at a pack root.
+// Each image carries the crc of the png it came from, so a bundle that went stale after an edit is just ignored.
+// The file is read in one go and only indexed up front, pixels are copied out when an image is actually asked for
+public class PackBundle {
+
+    private static final int MAGIC = 0x50544242; // PTBB
+    private static final int VERSION = 1;
+    private static final String BUNDLE_NAME = "polytone.bundle";
+
+    private record Entry(long crc, ByteBuffer data, int offset, int width, int height) {
+
+        private ArrayImage decode() {
+            // absolute positions on a view, this gets called from several decode threads at once
+            IntBuffer ints = data.duplicate().position(offset).slice().asIntBuffer();
+            int[][] pixels = new int[height][width];
+            for (int[] row : pixels) {
+                ints.get(row);
+            }
+            return new ArrayImage(pixels, width, height);
+        }
+    }
+
+    // pack id -> file id -> image
+    private static volatile Map<String, Map<ResourceLocation, Entry>> bundles = Map.of();
+
+    public static void load(ResourceManager manager) {
+        Map<String, Map<ResourceLocation, Entry>> map = new HashMap<>();
+        manager.listPacks().forEach(pack -> {
+            Map<ResourceLocation, Entry> entries = read(pack);
+            if (entries != null) map.put(pack.packId(), entries);
+        });
+        bundles = map;
+    }
+
+    public static void clear() {
+        bundles = Map.of();
+    }
+
+    @Nullable
+    private static Map<ResourceLocation, Entry> read(PackResources pack) {
+        IoSupplier<InputStream> supplier = pack.getRootResource(BUNDLE_NAME);
+        if (supplier == null) return null;
+        byte[] bytes;
+        try (InputStream stream = supplier.get()) {
+            bytes = stream.readAllBytes();
+        } catch (IOException e) {
+            Polytone.LOGGER.error("Failed to read {} in pack {}", BUNDLE_NAME, pack.packId(), e);
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                Polytone.LOGGER.warn("Ignoring {} in pack {}, it was made by a different compiler version", BUNDLE_NAME, pack.packId());
+                return null;
+            }
+            int count = data.readInt();
+            Map<ResourceLocation, Entry> entries = new HashMap<>(count);
+            for (int i = 0; i < count; i++) {
+                ResourceLocation id = ResourceLocation.parse(data.readUTF());
+                long crc = data.readLong();
+                int width = data.readInt();
+                int height = data.readInt();
+                int size = 4 * width * height;
+                int offset = bytes.length - data.available();
+                if (width <= 0 || height <= 0 || data.skipBytes(size) != size) {
+                    throw new IOException("Truncated entry " + id);
+                }
+                entries.put(id, new Entry(crc, buffer, offset, width, height));
+            }
+            Polytone.LOGGER.info("Indexed {} pre-decoded images from {} in pack {}", count, BUNDLE_NAME, pack.packId());
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            Polytone.LOGGER.error("Failed to read {} in pack {}", BUNDLE_NAME, pack.packId(), e);
+            return null;
+        }
+    }
+
+    @Nullable
+    public static ArrayImage getImage(String packId, ResourceLocation fileId, byte[] content) {
+        var entries = bundles.get(packId);
+        if (entries == null) return null;
+        Entry e = entries.get(fileId);
+        if (e == null) return null;
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue() == e.crc ? e.decode() : null;
+    }
+}
@@ -7,6 +7,8 @@ import com.google.gson.JsonParseException;
 import com.mojang.serialization.DynamicOps;
 import net.mehvahdjukaar.polytone.PlatStuff;
 import net.mehvahdjukaar.polytone.Polytone;
+import net.mehvahdjukaar.polytone.utils.profiling.ReloadFileEvent;
+import net.mehvahdjukaar.polytone.utils.profiling.ReloadProfiler;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.resources.FileToIdConverter;
@@ -19,6 +21,7 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static net.minecraft.server.packs.resources.SimpleJsonResourceReloadListener.scanDirectory;
@@ -38,6 +41,11 @@ public abstract class PartialReloader<T> {
         return StringUtils.capitalize(names[0].replace("_", " ") + " Reloader");
     }
 
+    // the file a json id came from, used to attribute runtime costs to it
+    protected ResourceLocation sourceFile(ResourceLocation id) {
+        return id.withPath(p -> Polytone.MOD_ID + "/" + names[0] + "/" + p + ".json");
+    }
+
     protected Map<ResourceLocation, JsonElement> getJsonsInDirectories(ResourceManager resourceManager) {
         Map<ResourceLocation, JsonElement> jsons = new HashMap<>();
         for (String name : names) {
@@ -55,6 +63,7 @@ public abstract class PartialReloader<T> {
             ResourceLocation resourceLocation = entry.getKey();
             ResourceLocation resourceLocation2 = fileToIdConverter.fileToId(resourceLocation);
 
+            ReloadFileEvent event = ReloadProfiler.startFile();
             try {
                 Reader reader = entry.getValue().openAsReader();
 
@@ -77,6 +86,8 @@ public abstract class PartialReloader<T> {
                 reader.close();
             } catch (IllegalArgumentException | IOException | JsonParseException var14) {
                 Polytone.LOGGER.error("Couldn't parse data file {} from {}", resourceLocation2, resourceLocation, var14);
+            } finally {
+                ReloadProfiler.endFile(event, resourceLocation, "json");
             }
         }
     }
@@ -106,6 +117,23 @@ public abstract class PartialReloader<T> {
         return ArrayImage.groupTextures(this.getImagesInDirectories(manager));
     }
 
+    // reloaders whose resources this one needs. They must come before this one in the compound reloader.
+    // everything else is free to prepare in parallel
+    protected List<PartialReloader<?>> getDependencies() {
+        return List.of();
+    }
+
+    // reloaders this one adds entries to while processing. They only drop those in their own reset,
+    // so the two sides always get reloaded together, whichever of them changed
+    protected List<PartialReloader<?>> getWriteTargets() {
+        return List.of();
+    }
+
+    // if false this always gets fully reloaded, even when none of the files it read changed
+    protected boolean supportsIncrementalReload() {
+        return true;
+    }
+
     protected abstract T prepare(ResourceManager resourceManager);
 
     protected abstract void reset();
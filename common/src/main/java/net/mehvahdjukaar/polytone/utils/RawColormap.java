@@ -0,0 +1,54 @@
+package net.mehvahdjukaar.polytone.utils;
+
+import net.minecraft.server.packs.resources.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+// Uncompressed alternative to png colormaps. 16 byte header (magic, version, width, height) followed by tightly packed
+// argb pixels, all little endian. Loading is a straight bulk copy, no decoding or format conversion.
+// The pack compiler can generate these from existing pngs. When both exist the raw one wins, unless the png comes from a
+// higher priority pack
+public final class RawColormap {
+
+    public static final String EXTENSION = ".rawcm";
+    public static final int MAGIC = 0x4D435450; // "PTCM" read as little endian
+    public static final int VERSION = 1;
+    private static final int HEADER = 16;
+
+    public static ArrayImage read(Resource resource) throws IOException {
+        byte[] bytes;
+        try (InputStream stream = resource.open()) {
+            bytes = stream.readAllBytes();
+        }
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    public static ArrayImage read(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a raw colormap");
+        }
+        if (buffer.getInt() != VERSION) {
+            throw new IOException("Unsupported raw colormap version");
+        }
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        if (width <= 0 || height <= 0 || buffer.remaining() != 4L * width * height) {
+            throw new IOException("Raw colormap size does not match its header");
+        }
+        IntBuffer ints = buffer.asIntBuffer();
+        int[][] pixels = new int[height][width];
+        for (int[] row : pixels) {
+            ints.get(row);
+            // alpha is always forced to opaque, same as pngs
+            for (int j = 0; j < width; j++) {
+                row[j] |= 0xFF000000;
+            }
+        }
+        return new ArrayImage(pixels, width, height);
+    }
+}
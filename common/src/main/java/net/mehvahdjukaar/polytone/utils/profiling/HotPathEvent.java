@@ -0,0 +1,34 @@
+package net.mehvahdjukaar.polytone.utils.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("polytone.HotPath")
+@Label("Polytone Hot Path")
+@Category({"Polytone", "Runtime"})
+@Description("Calls and sampled cost of one Polytone render hook, or hits and misses of one of its caches, since the previous event")
+@Period("1 s")
+@StackTrace(false)
+public class HotPathEvent extends Event {
+
+    @Label("Metric")
+    public String metric;
+
+    @Label("Calls")
+    public long calls;
+
+    @Label("Average Time")
+    @Description("Average of the sampled calls. -1 for caches")
+    @Timespan(Timespan.NANOSECONDS)
+    public long averageNanos;
+
+    @Label("Hit Rate")
+    @Description("Cache hit rate between 0 and 1. -1 for hooks")
+    public double hitRate;
+}
@@ -0,0 +1,183 @@
+package net.mehvahdjukaar.polytone.utils.profiling;
+
+import jdk.jfr.FlightRecorder;
+import net.minecraft.Util;
+import net.minecraft.resources.ResourceLocation;
+import net.objecthunter.exp4j.Expression;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+// Optional counters for the per frame and per vertex hooks. Turn it on with -Dpolytone.metrics=true.
+// Counts are striped (LongAdder) so render threads dont fight over them and only 1 in 64 calls is timed.
+// Shows up as a section on the right side of F3 and as a polytone.HotPath JFR event every second
+public final class HotPathMetrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("polytone.metrics");
+    private static final int SAMPLE_MASK = 63;
+
+    public enum Hook {
+        COLORMAP("colormap color"),
+        COLORMAP_EXPRESSION("colormap expr"),
+        BLOCK_EXPRESSION("block expr"),
+        PARTICLE_EXPRESSION("particle expr"),
+        LIGHTMAP_EXPRESSION("lightmap expr"),
+        ITEM_OVERRIDE("item override"),
+        VARIANT_QUAD("variant quad"),
+        PARTICLE_MODIFIER("particle modifier"),
+        LIGHTMAP_RECOMPUTE("lightmap recompute"),
+        LIGHTMAP_UPLOAD("lightmap upload");
+
+        private final String label;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder sampledNanos = new LongAdder();
+        private final LongAdder samples = new LongAdder();
+        // racy on purpose, only used to pick which calls to time
+        private int tick;
+        private final Window f3 = new Window();
+        private final Window jfr = new Window();
+
+        Hook(String label) {
+            this.label = label;
+        }
+    }
+
+    public enum Cache {
+        ITEM_MODEL("item model"),
+        VARIANT_QUAD("variant quad"),
+        ITEM_NAME("item name");
+
+        private final String label;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final Window f3 = new Window();
+        private final Window jfr = new Window();
+
+        Cache(String label) {
+            this.label = label;
+        }
+    }
+
+    // last seen totals so we can report deltas
+    private static final class Window {
+        long a;
+        long b;
+        long c;
+    }
+
+    private static final long F3_PERIOD_MS = 1000;
+    private static long lastF3Update = 0;
+    private static List<String> f3Lines = List.of();
+
+    static {
+        if (ENABLED) {
+            FlightRecorder.addPeriodicEvent(HotPathEvent.class, HotPathMetrics::emitJfr);
+        }
+    }
+
+    // returns a start time if this call should be timed, 0 otherwise
+    public static long start(Hook hook) {
+        if (!ENABLED) return 0;
+        hook.calls.increment();
+        if ((hook.tick++ & SAMPLE_MASK) != 0) return 0;
+        return System.nanoTime();
+    }
+
+    public static void stop(Hook hook, long start) {
+        if (start == 0) return;
+        hook.sampledNanos.add(System.nanoTime() - start);
+        hook.samples.increment();
+    }
+
+    // also attributes the time to the file the expression came from
+    public static double evaluate(Hook hook, Expression expression, @Nullable ResourceLocation source) {
+        long start = start(hook);
+        Object previous = ResourceCostProfiler.enter(source);
+        try {
+            return expression.evaluate();
+        } finally {
+            ResourceCostProfiler.exit(previous);
+            stop(hook, start);
+        }
+    }
+
+    public static void count(Hook hook) {
+        if (!ENABLED) return;
+        hook.calls.increment();
+    }
+
+    public static void count(Hook hook, int amount) {
+        if (!ENABLED) return;
+        hook.calls.add(amount);
+    }
+
+    public static void hit(Cache cache) {
+        if (!ENABLED) return;
+        cache.hits.increment();
+    }
+
+    public static void miss(Cache cache) {
+        if (!ENABLED) return;
+        cache.misses.increment();
+    }
+
+    // called every frame by the debug overlay, only recomputes once per second
+    public static List<String> getDebugLines() {
+        if (!ENABLED) return List.of();
+        long now = Util.getMillis();
+        long elapsed = now - lastF3Update;
+        if (elapsed < F3_PERIOD_MS) return f3Lines;
+        boolean first = lastF3Update == 0;
+        lastF3Update = now;
+        List<String> lines = new ArrayList<>();
+        lines.add("");
+        lines.add("[Polytone] per second:");
+        for (Hook h : Hook.values()) {
+            long[] d = delta(h.f3, h.calls.sum(), h.sampledNanos.sum(), h.samples.sum());
+            if (d[0] == 0 || first) continue;
+            String cost = d[2] == 0 ? "" : String.format(Locale.ROOT, " ~%.2fus", d[1] / (double) d[2] / 1000);
+            lines.add(String.format(Locale.ROOT, "%s: %d%s", h.label, d[0] * 1000 / elapsed, cost));
+        }
+        for (Cache c : Cache.values()) {
+            long[] d = delta(c.f3, c.hits.sum(), c.misses.sum(), 0);
+            long total = d[0] + d[1];
+            if (total == 0 || first) continue;
+            lines.add(String.format(Locale.ROOT, "%s cache: %.1f%% hit", c.label, d[0] * 100.0 / total));
+        }
+        f3Lines = lines;
+        return lines;
+    }
+
+    private static void emitJfr() {
+        for (Hook h : Hook.values()) {
+            long[] d = delta(h.jfr, h.calls.sum(), h.sampledNanos.sum(), h.samples.sum());
+            HotPathEvent event = new HotPathEvent();
+            event.metric = h.label;
+            event.calls = d[0];
+            event.averageNanos = d[2] == 0 ? 0 : d[1] / d[2];
+            event.hitRate = -1;
+            event.commit();
+        }
+        for (Cache c : Cache.values()) {
+            long[] d = delta(c.jfr, c.hits.sum(), c.misses.sum(), 0);
+            long total = d[0] + d[1];
+            HotPathEvent event = new HotPathEvent();
+            event.metric = c.label + " cache";
+            event.calls = total;
+            event.averageNanos = -1;
+            event.hitRate = total == 0 ? 0 : d[0] / (double) total;
+            event.commit();
+        }
+    }
+
+    private static long[] delta(Window w, long a, long b, long c) {
+        long[] d = {a - w.a, b - w.b, c - w.c};
+        w.a = a;
+        w.b = b;
+        w.c = c;
+        return d;
+    }
+}
@@ -0,0 +1,23 @@
+package net.mehvahdjukaar.polytone.utils.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("polytone.ReloadFile")
+@Label("Polytone Reload File")
+@Category({"Polytone", "Reload"})
+@Description("Reading and decoding of a single resource pack file")
+public class ReloadFileEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Kind")
+    public String kind;
+
+    // not recorded, used for the log summary
+    transient long startNanos;
+}
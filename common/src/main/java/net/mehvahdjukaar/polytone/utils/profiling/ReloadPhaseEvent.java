@@ -0,0 +1,20 @@
+package net.mehvahdjukaar.polytone.utils.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("polytone.ReloadPhase")
+@Label("Polytone Reload Phase")
+@Category({"Polytone", "Reload"})
+@Description("One prepare, process or apply step of a single Polytone reloader")
+public class ReloadPhaseEvent extends Event {
+
+    @Label("Reloader")
+    public String reloader;
+
+    @Label("Phase")
+    public String phase;
+}
@@ -0,0 +1,115 @@
+package net.mehvahdjukaar.polytone.utils.profiling;
+
+import net.mehvahdjukaar.polytone.Polytone;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+// Optional reload profiler. Turn it on with -Dpolytone.profileReload=true.
+// Times every reloader phase and every file read, emits them as JFR events and writes a summary to polytone.log.
+// When off, all the calls below fold down to just running the task
+public final class ReloadProfiler {
+
+    public static final boolean ENABLED = Boolean.getBoolean("polytone.profileReload");
+    private static final int SLOWEST_FILES = 25;
+
+    private record Sample(String owner, String what, long nanos) {
+    }
+
+    private static final Queue<Sample> PHASES = new ConcurrentLinkedQueue<>();
+    private static final Queue<Sample> FILES = new ConcurrentLinkedQueue<>();
+
+    public static <T> T phase(Object reloader, String phase, Supplier<T> task) {
+        if (!ENABLED) return task.get();
+        ReloadPhaseEvent event = new ReloadPhaseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            long took = System.nanoTime() - start;
+            PHASES.add(new Sample(String.valueOf(reloader), phase, took));
+            if (event.shouldCommit()) {
+                event.reloader = String.valueOf(reloader);
+                event.phase = phase;
+                event.commit();
+            }
+        }
+    }
+
+    public static void runPhase(Object reloader, String phase, Runnable task) {
+        if (!ENABLED) {
+            task.run();
+            return;
+        }
+        phase(reloader, phase, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <T> T file(Object file, String kind, Supplier<T> task) {
+        if (!ENABLED) return task.get();
+        ReloadFileEvent event = startFile();
+        try {
+            return task.get();
+        } finally {
+            endFile(event, file, kind);
+        }
+    }
+
+    // for call sites that throw checked exceptions. null when disabled
+    @Nullable
+    public static ReloadFileEvent startFile() {
+        if (!ENABLED) return null;
+        ReloadFileEvent event = new ReloadFileEvent();
+        event.begin();
+        event.startNanos = System.nanoTime();
+        return event;
+    }
+
+    public static void endFile(@Nullable ReloadFileEvent event, Object file, String kind) {
+        if (event == null) return;
+        FILES.add(new Sample(String.valueOf(file), kind, System.nanoTime() - event.startNanos));
+        if (event.shouldCommit()) {
+            event.file = String.valueOf(file);
+            event.kind = kind;
+            event.commit();
+        }
+    }
+
+    public static void begin() {
+        if (!ENABLED) return;
+        PHASES.clear();
+        FILES.clear();
+    }
+
+    // structured summary, one row per reloader phase then the slowest files
+    public static void finish(long totalNanos) {
+        if (!ENABLED) return;
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "Polytone reload profile, total %.1f ms", totalNanos / 1e6));
+        lines.add(String.format(Locale.ROOT, "%-10s %-40s %10s", "phase", "reloader", "ms"));
+        List<Sample> phases = new ArrayList<>(PHASES);
+        phases.sort(Comparator.comparingLong(Sample::nanos).reversed());
+        for (var s : phases) {
+            lines.add(String.format(Locale.ROOT, "%-10s %-40s %10.2f", s.what, s.owner, s.nanos / 1e6));
+        }
+        List<Sample> files = new ArrayList<>(FILES);
+        files.sort(Comparator.comparingLong(Sample::nanos).reversed());
+        lines.add(String.format(Locale.ROOT, "slowest %d of %d files:", Math.min(SLOWEST_FILES, files.size()), files.size()));
+        for (var s : files.subList(0, Math.min(SLOWEST_FILES, files.size()))) {
+            lines.add(String.format(Locale.ROOT, "%10.2f ms  %-6s %s", s.nanos / 1e6, s.what, s.owner));
+        }
+        Polytone.appendToLog(lines);
+        Polytone.LOGGER.info("Wrote Polytone reload profile to polytone.log");
+        PHASES.clear();
+        FILES.clear();
+    }
+}
@@ -0,0 +1,152 @@
+package net.mehvahdjukaar.polytone.utils.profiling;
+
+import it.unimi.dsi.fastutil.objects.AbstractObject2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import net.mehvahdjukaar.polytone.Polytone;
+import net.minecraft.ChatFormatting;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Tells pack authors which of their files costs the most at runtime. Turn it on with -Dpolytone.profileResources=true
+// and press F3+Y to dump a ranked table.
+// Colormaps, expressions, particle modifiers, lightmaps and item model overrides remember the file they were decoded
+// from. While one of them runs, the thread publishes that file in a slot and a background thread samples all slots
+// every millisecond. Innermost tag wins so nested things are not counted twice.
+// Shares are of all tagged samples across every thread (chunk builders included), not of frame time
+public final class ResourceCostProfiler {
+
+    public static final boolean ENABLED = Boolean.getBoolean("polytone.profileResources");
+    private static final int SHOWN_IN_CHAT = 5;
+    private static final int SHOWN_IN_LOG = 50;
+
+    // returned by enter when nothing was entered
+    private static final Object NOT_ENTERED = new Object();
+
+    private static final class Slot {
+        // dead threads get their slot dropped by the sampler
+        final Thread thread = Thread.currentThread();
+        volatile ResourceLocation current;
+    }
+
+    private static final int PRUNE_INTERVAL = 1000;
+
+    private static final List<Slot> SLOTS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Slot> SLOT = ThreadLocal.withInitial(() -> {
+        Slot s = new Slot();
+        SLOTS.add(s);
+        return s;
+    });
+
+    private static final Object2LongOpenHashMap<ResourceLocation> SAMPLES = new Object2LongOpenHashMap<>();
+    private static long totalSamples = 0;
+
+    // only touched by the reload thread while decoding
+    @Nullable
+    private static ResourceLocation decodingSource;
+
+    static {
+        if (ENABLED) {
+            Thread sampler = new Thread(ResourceCostProfiler::sampleLoop, "Polytone Resource Cost Sampler");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+    }
+
+    public static void beginDecode(ResourceLocation source) {
+        if (!ENABLED) return;
+        decodingSource = source;
+    }
+
+    public static void endDecode() {
+        decodingSource = null;
+    }
+
+    // to be used as a field initializer by anything that should be attributed to the file it came from
+    @Nullable
+    public static ResourceLocation decodingSource() {
+        return ENABLED ? decodingSource : null;
+    }
+
+    public static Object enter(@Nullable ResourceLocation source) {
+        if (!ENABLED || source == null) return NOT_ENTERED;
+        Slot slot = SLOT.get();
+        ResourceLocation previous = slot.current;
+        slot.current = source;
+        return previous;
+    }
+
+    public static void exit(@Nullable Object previous) {
+        if (previous == NOT_ENTERED) return;
+        SLOT.get().current = (ResourceLocation) previous;
+    }
+
+    private static void sampleLoop() {
+        int ticks = 0;
+        while (true) {
+            if (++ticks % PRUNE_INTERVAL == 0) {
+                SLOTS.removeIf(s -> !s.thread.isAlive());
+            }
+            synchronized (SAMPLES) {
+                for (Slot s : SLOTS) {
+                    ResourceLocation current = s.current;
+                    if (current != null) {
+                        SAMPLES.addTo(current, 1);
+                        totalSamples++;
+                    }
+                }
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // ranked table to polytone.log and the top few to chat. Resets the samples
+    public static void dump() {
+        List<Object2LongMap.Entry<ResourceLocation>> ranked;
+        long total;
+        synchronized (SAMPLES) {
+            ranked = new ArrayList<>();
+            for (var e : SAMPLES.object2LongEntrySet()) {
+                ranked.add(new AbstractObject2LongMap.BasicEntry<>(e.getKey(), e.getLongValue()));
+            }
+            total = totalSamples;
+            SAMPLES.clear();
+            totalSamples = 0;
+        }
+        ranked.sort((a, b) -> Long.compare(b.getLongValue(), a.getLongValue()));
+
+        List<String> lines = new ArrayList<>();
+        lines.add("Polytone resource costs, " + total + " samples across all threads");
+        for (int i = 0; i < Math.min(SHOWN_IN_LOG, ranked.size()); i++) {
+            var e = ranked.get(i);
+            lines.add(format(e.getKey(), e.getLongValue(), total));
+        }
+        Polytone.appendToLog(lines);
+
+        var chat = Minecraft.getInstance().gui.getChat();
+        if (total == 0) {
+            chat.addMessage(Component.literal("[Polytone] No resource costs sampled yet").withStyle(ChatFormatting.YELLOW));
+            return;
+        }
+        chat.addMessage(Component.literal("[Polytone] Most expensive files (full table in polytone.log):").withStyle(ChatFormatting.YELLOW));
+        for (int i = 0; i < Math.min(SHOWN_IN_CHAT, ranked.size()); i++) {
+            var e = ranked.get(i);
+            chat.addMessage(Component.literal(format(e.getKey(), e.getLongValue(), total)));
+        }
+    }
+
+    private static String format(ResourceLocation source, long samples, long total) {
+        return String.format(Locale.ROOT, "%s: %.1f%% of sampled Polytone time", source, samples * 100.0 / total);
+    }
+}
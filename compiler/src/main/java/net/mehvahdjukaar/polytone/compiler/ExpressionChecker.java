@@ -0,0 +1,122 @@
+package net.mehvahdjukaar.polytone.compiler;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.objecthunter.exp4j.ExpressionBuilder;
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Compiles every expression found in polytone jsons the same way the game does, so typos fail at pack build time.
+// We can't run the real codecs here so expressions are found by field name, and variables are checked against
+// the union of all expression contexts. Keep names in sync with ExpressionUtils and the *ContextExpression classes
+final class ExpressionChecker {
+
+    // every field that decodes as an expression (or as a number provider that can be one)
+    private static final Set<String> KEYS = Set.of(
+            "expression", "x_axis", "y_axis", "sky_getter", "torch_getter", "cloud_level",
+            "x", "y", "z", "dx", "dy", "dz", "size", "red", "green", "blue", "alpha", "roll", "color", "speed",
+            "custom", "remove_condition", "chance", "count", "volume", "pitch", "life", "lifetime", "friction");
+
+    private static final String[] VARIABLES = {
+            "COLOR", "SPEED", "X", "Y", "Z", "DX", "DY", "DZ", "RED", "GREEN", "BLUE", "ALPHA", "SIZE", "LIFETIME",
+            "ROLL", "AGE", "PLAYER_X", "PLAYER_Y", "PLAYER_Z", "CUSTOM", "TIME", "RAIN", "THUNDER", "DAY_TIME",
+            "SKY_LIGHT", "BLOCK_LIGHT", "DOWNFALL", "TEMPERATURE", "DISTANCE_SQUARED", "POS_X", "POS_Y", "POS_Z",
+            "BIOME_VALUE"};
+
+    // builtin number provider names and ids are references, not expressions
+    private static final Pattern REFERENCE = Pattern.compile("[a-z0-9_.-]+(:[a-z0-9_./-]+)?");
+    private static final Pattern HEX = Pattern.compile("(?:#|0x)[0-9a-fA-F]+");
+    // noise functions are generated from the noises in the pack, any of them is accepted here
+    private static final Pattern NOISE = Pattern.compile("\\b(noise(?:_[a-z0-9_]+)?)\\s*\\(");
+
+    private static final List<Function> FUNCTIONS = List.of(
+            stub("cos", 1), stub("sin", 1), stub("atan2", 2), stub("rand", 0), stub("gaussian", 0),
+            stub("step", 2), stub("smoothstep", 3), stub("max", 2), stub("min", 2), stub("lerp", 3),
+            stub("red", 1), stub("green", 1), stub("blue", 1), stub("alpha", 1), stub("color", 4),
+            stub("state_prop", 1), stub("state_prop_i", 1));
+
+    private static final Operator[] OPERATORS = {
+            operator("==", 2, Operator.PRECEDENCE_ADDITION - 1), operator("<=", 2, Operator.PRECEDENCE_ADDITION - 2),
+            operator(">=", 2, Operator.PRECEDENCE_ADDITION - 3), operator("<", 2, Operator.PRECEDENCE_ADDITION - 4),
+            operator(">", 2, Operator.PRECEDENCE_ADDITION - 5), operator("!", 1, Operator.PRECEDENCE_POWER + 1)};
+
+    private int checked = 0;
+
+    int checked() {
+        return checked;
+    }
+
+    void check(String id, JsonElement json, List<String> errors) {
+        if (json.isJsonArray()) {
+            for (JsonElement e : json.getAsJsonArray()) {
+                check(id, e, errors);
+            }
+        } else if (json.isJsonObject()) {
+            JsonObject object = json.getAsJsonObject();
+            for (var e : object.entrySet()) {
+                JsonElement value = e.getValue();
+                if (KEYS.contains(e.getKey()) && value.isJsonPrimitive() && value.getAsJsonPrimitive().isString()) {
+                    checkExpression(id + " (" + e.getKey() + ")", value.getAsString(), errors);
+                } else {
+                    check(id, value, errors);
+                }
+            }
+        }
+    }
+
+    private void checkExpression(String where, String s, List<String> errors) {
+        if (REFERENCE.matcher(s).matches()) return;
+        checked++;
+        try {
+            String expression = removeHex(s);
+            List<Function> functions = new ArrayList<>(FUNCTIONS);
+            Set<String> noises = new LinkedHashSet<>();
+            Matcher m = NOISE.matcher(expression);
+            while (m.find()) noises.add(m.group(1));
+            for (String n : noises) functions.add(stub(n, 2));
+            new ExpressionBuilder(expression)
+                    .functions(functions)
+                    .variables(VARIABLES)
+                    .operator(OPERATORS)
+                    .build();
+        } catch (RuntimeException e) {
+            errors.add(where + ": invalid expression '" + s + "': " + e.getMessage());
+        }
+    }
+
+    private static String removeHex(String s) {
+        Matcher matcher = HEX.matcher(s);
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            String hex = matcher.group().replace("#", "").replace("0x", "");
+            matcher.appendReplacement(sb, Long.toString(Long.parseLong(hex, 16)));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    private static Function stub(String name, int args) {
+        return new Function(name, args) {
+            @Override
+            public double apply(double... values) {
+                return 0;
+            }
+        };
+    }
+
+    private static Operator operator(String symbol, int operands, int precedence) {
+        return new Operator(symbol, operands, true, precedence) {
+            @Override
+            public double apply(double... values) {
+                return 0;
+            }
+        };
+    }
+}
@@ -0,0 +1,242 @@
+package net.mehvahdjukaar.polytone.compiler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DirectColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Offline pack compiler. Validates everything polytone reads from a pack (polytone/, optifine/ and colormatic/ folders),
+// compiles every expression, and writes a polytone.bundle with all colormap and lightmap images already decoded,
+// so clients can skip png decoding. Can also convert those pngs to the raw format polytone loads without decoding.
+// Usage: PackCompiler <pack folder> [--validate-only | --to-raw]
+public class PackCompiler {
+
+    // keep in sync with PackBundle in common
+    public static final int MAGIC = 0x50544242; // PTBB
+    public static final int VERSION = 1;
+    public static final String BUNDLE_NAME = "polytone.bundle";
+
+    // keep in sync with RawColormap in common
+    public static final String RAW_EXTENSION = ".rawcm";
+    public static final int RAW_MAGIC = 0x4D435450;
+    public static final int RAW_VERSION = 1;
+
+    private static final Gson GSON = new Gson();
+    private static final String[] ROOTS = {"polytone", "optifine", "colormatic"};
+    // only folders the game decodes images from. Keep in sync with the ArrayImage.scanDirectory callers
+    private static final String[] IMAGE_DIRS = {
+            "polytone/colormaps", "polytone/block_modifiers", "polytone/block_properties",
+            "polytone/fluid_modifiers", "polytone/fluid_properties", "polytone/item_modifiers",
+            "polytone/item_properties", "polytone/dimension_modifiers", "polytone/dimension_effects",
+            "polytone/lightmaps", "optifine/colormap", "colormatic/colormap", "optifine/lightmap", "colormatic/lightmap"};
+
+    private final Path pack;
+    private final List<String> errors = new ArrayList<>();
+    private final List<Image> images = new ArrayList<>();
+    private final ExpressionChecker expressions = new ExpressionChecker();
+    private int jsons = 0;
+    private int properties = 0;
+
+    private record Image(String id, Path file, long crc, int width, int height, int[] argb) {
+    }
+
+    public PackCompiler(Path pack) {
+        this.pack = pack;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: PackCompiler <pack folder> [--validate-only | --to-raw]");
+            System.exit(2);
+        }
+        Path pack = Path.of(args[0]);
+        String mode = args.length > 1 ? args[1] : "";
+        if (!Files.isDirectory(pack.resolve("assets"))) {
+            System.err.println(pack + " is not an unzipped resource pack");
+            System.exit(2);
+        }
+        PackCompiler compiler = new PackCompiler(pack);
+        compiler.scan();
+        for (String e : compiler.errors) {
+            System.err.println("ERROR " + e);
+        }
+        System.out.printf("Checked %d jsons, %d expressions, %d properties, %d images. %d errors%n",
+                compiler.jsons, compiler.expressions.checked(), compiler.properties, compiler.images.size(),
+                compiler.errors.size());
+        if (!compiler.errors.isEmpty()) System.exit(1);
+        if (mode.equals("--to-raw")) {
+            compiler.writeRawColormaps();
+            System.out.println("Wrote " + compiler.images.size() + " raw colormaps");
+        } else if (!mode.equals("--validate-only")) {
+            Path out = pack.resolve(BUNDLE_NAME);
+            compiler.writeBundle(out);
+            System.out.println("Wrote " + out);
+        }
+    }
+
+    public void scan() throws IOException {
+        try (Stream<Path> namespaces = Files.list(pack.resolve("assets"))) {
+            for (Path ns : namespaces.filter(Files::isDirectory).sorted().toList()) {
+                for (String root : ROOTS) {
+                    Path dir = ns.resolve(root);
+                    if (!Files.isDirectory(dir)) continue;
+                    try (Stream<Path> files = Files.walk(dir)) {
+                        for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                            String path = ns.relativize(file).toString().replace('\\', '/');
+                            check(ns.getFileName() + ":" + path, path, file);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void check(String id, String path, Path file) {
+        String name = file.getFileName().toString();
+        try {
+            if (name.endsWith(".json")) {
+                jsons++;
+                // strict, same as the game
+                try (JsonReader reader = new JsonReader(Files.newBufferedReader(file))) {
+                    JsonElement json = GSON.getAdapter(JsonElement.class).read(reader);
+                    if (reader.peek() != JsonToken.END_DOCUMENT) {
+                        errors.add(id + ": trailing data after json");
+                    }
+                    if (path.startsWith("polytone/")) {
+                        expressions.check(id, json, errors);
+                    }
+                }
+            } else if (name.endsWith(".properties")) {
+                properties++;
+                try (Reader reader = Files.newBufferedReader(file)) {
+                    new Properties().load(reader);
+                }
+            } else if (name.endsWith(".png") && isImageDir(path)) {
+                byte[] bytes = Files.readAllBytes(file);
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+                if (image == null) {
+                    errors.add(id + ": not a readable png");
+                    return;
+                }
+                int w = image.getWidth();
+                int h = image.getHeight();
+                int[] argb = readArgb(image);
+                // polytone always treats colormap pixels as opaque
+                for (int i = 0; i < argb.length; i++) {
+                    argb[i] |= 0xFF000000;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                images.add(new Image(id, file, crc.getValue(), w, h, argb));
+            } else if (name.endsWith(RAW_EXTENSION)) {
+                checkRaw(id, Files.readAllBytes(file));
+            }
+        } catch (IOException | JsonParseException | IllegalArgumentException e) {
+            errors.add(id + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isImageDir(String path) {
+        for (String dir : IMAGE_DIRS) {
+            if (path.startsWith(dir + "/")) return true;
+        }
+        return false;
+    }
+
+    // same values stb (and so NativeImage) gives. getRGB would convert gray images out of their linear color space,
+    // so component images are read straight from the raster samples. Palettes are already plain srgb entries
+    private static int[] readArgb(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        ColorModel model = image.getColorModel();
+        if (model instanceof IndexColorModel || model instanceof DirectColorModel) {
+            return image.getRGB(0, 0, w, h, null, 0, w);
+        }
+        Raster raster = image.getRaster();
+        int colors = model.getNumColorComponents();
+        int[] bits = model.getComponentSize();
+        int[] samples = new int[raster.getNumBands()];
+        int[] argb = new int[w * h];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                raster.getPixel(x, y, samples);
+                int r = to8Bit(samples[0], bits[0]);
+                int g = colors >= 3 ? to8Bit(samples[1], bits[1]) : r;
+                int b = colors >= 3 ? to8Bit(samples[2], bits[2]) : r;
+                argb[y * w + x] = 0xFF000000 | r << 16 | g << 8 | b;
+            }
+        }
+        return argb;
+    }
+
+    // stb drops the low byte of 16 bit samples and scales low bit depths up
+    private static int to8Bit(int sample, int bits) {
+        if (bits == 8) return sample;
+        if (bits > 8) return sample >> (bits - 8);
+        return sample * 255 / ((1 << bits) - 1);
+    }
+
+    private void checkRaw(String id, byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < 16 || buffer.getInt() != RAW_MAGIC || buffer.getInt() != RAW_VERSION) {
+            errors.add(id + ": not a raw colormap");
+            return;
+        }
+        long w = buffer.getInt();
+        long h = buffer.getInt();
+        if (w <= 0 || h <= 0 || bytes.length != 16 + 4 * w * h) {
+            errors.add(id + ": raw colormap size does not match its header");
+        }
+    }
+
+    // writes a .rawcm next to every colormap and lightmap png. those pngs can then be removed from the pack
+    public void writeRawColormaps() throws IOException {
+        for (Image i : images) {
+            String name = i.file.getFileName().toString();
+            Path out = i.file.resolveSibling(name.substring(0, name.length() - 4) + RAW_EXTENSION);
+            ByteBuffer buffer = ByteBuffer.allocate(16 + 4 * i.argb.length).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(RAW_MAGIC).putInt(RAW_VERSION).putInt(i.width).putInt(i.height);
+            buffer.asIntBuffer().put(i.argb);
+            Files.write(out, buffer.array());
+        }
+    }
+
+    public void writeBundle(Path out) throws IOException {
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out)))) {
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(images.size());
+            for (Image i : images) {
+                data.writeUTF(i.id);
+                data.writeLong(i.crc);
+                data.writeInt(i.width);
+                data.writeInt(i.height);
+                for (int p : i.argb) {
+                    data.writeInt(p);
+                }
+            }
+        }
+    }
+}